@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event for a bot deciding on its command (see BotPlayer.generateCommand()).
+ * Only decisions taking longer than the threshold are recorded, which a recording's settings can change.
+ */
+@Name("dungeon.BotDecision")
+@Label("Bot Decision")
+@Category("Dungeon of Doom")
+@Description("A bot generating its next command")
+@Threshold("100 us")
+@StackTrace(false)
+public class BotDecisionEvent extends jdk.jfr.Event {
+
+	@Label("Strategy")
+	@Description("The class of the bot")
+	String strategy;
+
+	@Label("Command")
+	String command;
+
+	@Label("Human Seen")
+	@Description("Whether the bot saw the human with its last LOOK")
+	boolean humanSeen;
+}
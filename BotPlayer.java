@@ -1,3 +1,4 @@
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Random;
 /**
@@ -26,12 +27,28 @@ public class BotPlayer extends Player {
 	/* Holds whether the bot has seen the human player through the look command*/
 	private boolean humanPlayerSeen;
 	
+	/* Used to choose between moves with the same score */
+	private Random random;
+	
 	
  	/**
  	 * Constructor for BotPlayer
  	 */
 	public BotPlayer() {
+		this(new Random());
+	}
+	
+ 	/**
+ 	 * Constructor for BotPlayer making the same moves every game
+ 	 * @param seed : seeds the choice between moves with the same score
+ 	 */
+	public BotPlayer(long seed) {
+		this(new Random(seed));
+	}
+	
+	private BotPlayer(Random random) {
 		super();
+		this.random = random;
 		moveNumber = 0;
 		mapAsLastSeen = new char[5][5];
 		humanPlayerSeen = false;
@@ -44,6 +61,10 @@ public class BotPlayer extends Player {
  	 */
 	@Override
 	public void generateCommand() {
+		/* Slow decisions are recorded by Java Flight Recorder, when a recording is running */
+		BotDecisionEvent event = new BotDecisionEvent();
+		event.begin();
+		
 		/*The bot will always look at the map first, move two directions, then look at the map again, 
 		  in order to see whether it can see the player and note its position  */
 		if (moveNumber%3 == 0) {
@@ -52,6 +73,49 @@ public class BotPlayer extends Player {
 			this.setCommand(getDirectionToMoveIn());
 		}
 		moveNumber++;
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.strategy = this.getClass().getSimpleName();
+			event.command = this.getCommand();
+			event.humanSeen = humanPlayerSeen;
+			event.commit();
+		}
+	}
+	
+	
+	/**
+	 * Copies the bot, so a command can be generated ahead of time without changing this bot.
+	 * The copy shares this bot's random number generator. Bots that keep more state should override 
+	 * this and adoptDecision() together.
+	 * @return : a copy of the bot's state
+	 */
+	public BotPlayer copyForSpeculation() {
+		BotPlayer copy = new BotPlayer(random);
+		copy.setPlayerPosition(this.getPlayerRowPosition(), this.getPlayerColumnPosition());
+		copy.setItemPlayerIsOn(this.getItemPlayerIsOn());
+		copy.setCommand(this.getCommand());
+		copy.moveNumber = moveNumber;
+		/* generateCommand() only reads what the bot saw, so the copy can share it */
+		copy.mapAsLastSeen = mapAsLastSeen;
+		copy.humanPlayerRowPos = humanPlayerRowPos;
+		copy.humanPlayerColumnPos = humanPlayerColumnPos;
+		copy.botRowPosOnLookMap = botRowPosOnLookMap;
+		copy.botColumnPosOnLookMap = botColumnPosOnLookMap;
+		copy.humanPlayerSeen = humanPlayerSeen;
+		return copy;
+	}
+	
+	/**
+	 * Takes on the command generated by a copy of this bot (from copyForSpeculation()), 
+	 * along with everything generateCommand() changed in the copy.
+	 * @param speculation : the copy that generated the command
+	 */
+	public void adoptDecision(BotPlayer speculation) {
+		this.setCommand(speculation.getCommand());
+		moveNumber = speculation.moveNumber;
+		botRowPosOnLookMap = speculation.botRowPosOnLookMap;
+		botColumnPosOnLookMap = speculation.botColumnPosOnLookMap;
 	}
 	
 	
@@ -69,29 +133,26 @@ public class BotPlayer extends Player {
  	 * @param mapInsight : the string returned when using the LOOK command. 
  	 */
 	public void setMapAsLastSeen(String mapInsight) {
-		/* Look() from gameLogic returns the map with spaces, remove these spaces to process the map as one long string */
-		mapInsight = mapInsight.replace("\n", "");
-		int charIndex = 0;
-		boolean foundHuman = false;
-		
-		/* Convert the string returned by the look command into a 2D array. 
-		   This way, we can take note if we see the player, as well as it's position on the map, 
-		   and use this to calculate what move will bring the bot closest to the player */ 
+		/* Look() from gameLogic returns five rows of five tiles, with a new line after each row but the last */
+		int rowLength = 6;
+		
+		/* Convert the string returned by the look command into a 2D array, 
+		   which is used to calculate what move will bring the bot closest to the player */ 
 		for (int i = 0; i < 5; i++){
-			for (int j = 0; j < 5; j++) {
-				mapAsLastSeen[i][j] = mapInsight.charAt(charIndex);
-				charIndex++;
-				if (mapAsLastSeen[i][j] == 'P') {
-					humanPlayerRowPos = i;
-					humanPlayerColumnPos = j;
-					foundHuman = true;
-				}
-				if (mapAsLastSeen[i][j] == 'B') {
-					botRowPosOnLookMap = i;
-					botColumnPosOnLookMap = j;
-				}
-			}
+			mapInsight.getChars(i * rowLength, i * rowLength + 5, mapAsLastSeen[i], 0);
+		}
+		/* Take note if we see the player, as well as it's position on the map */
+		byte[] window = mapInsight.getBytes(StandardCharsets.ISO_8859_1);
+		int humanIndex = TileScanner.indexOf(window, 0, window.length, 'P');
+		boolean foundHuman = humanIndex != -1;
+		if (foundHuman) {
+			humanPlayerRowPos = humanIndex / rowLength;
+			humanPlayerColumnPos = humanIndex % rowLength;
 		}
+		/* The LOOK command always puts the bot at the centre of what it sees. We do not search for a 'B',
+		   as with more than one bot on the map, another bot may be in sight */
+		botRowPosOnLookMap = 2;
+		botColumnPosOnLookMap = 2;
 		humanPlayerSeen = foundHuman;
 	}
 	
@@ -113,24 +174,22 @@ public class BotPlayer extends Player {
 		  DirectionScores[3] represents score for moving West*/
 		
 		/* If multiple directions have the same, lowest score, we will need to choose randomly 
-		   between them */
-		Random random = new Random();
+		   between them, using the random field */
 		
 		
-		
-		/* If any of the possible directions result in the bot moving into a wall,
+		/* If any of the possible directions result in the bot moving into a wall or another bot,
 		   the the directionScore for this move is set to positive infinity as the bot should
 		   not take this move */
-		if (mapAsLastSeen[botRowPosOnLookMap-1][botColumnPosOnLookMap] == '#') {
+		if (isBlocked(botRowPosOnLookMap-1, botColumnPosOnLookMap)) {
 			directionScores[0] = Double.POSITIVE_INFINITY;
 		}
-		if (mapAsLastSeen[botRowPosOnLookMap+1][botColumnPosOnLookMap] == '#') {
+		if (isBlocked(botRowPosOnLookMap+1, botColumnPosOnLookMap)) {
 			directionScores[1] = Double.POSITIVE_INFINITY;
 		}
-		if (mapAsLastSeen[botRowPosOnLookMap][botColumnPosOnLookMap+1] == '#') {
+		if (isBlocked(botRowPosOnLookMap, botColumnPosOnLookMap+1)) {
 			directionScores[2] = Double.POSITIVE_INFINITY;
 		}
-		if (mapAsLastSeen[botRowPosOnLookMap][botColumnPosOnLookMap-1] == '#') {
+		if (isBlocked(botRowPosOnLookMap, botColumnPosOnLookMap-1)) {
 			directionScores[3] = Double.POSITIVE_INFINITY;
 		}
 		
@@ -201,5 +260,16 @@ public class BotPlayer extends Player {
 		}
 		
 	}
+	
+ 	/**
+ 	 * Checks a tile the bot could move onto, following the same rules as GameLogic.move()
+ 	 * @param rowPos, columnPos : The row/column number of the tile on the map as last seen
+ 	 * @return : true if the tile is a wall or another bot
+ 	 */
+	private boolean isBlocked(int rowPos, int columnPos) {
+		char tile = mapAsLastSeen[rowPos][columnPos];
+		/* The 'B' in the centre of what the bot saw is the bot itself, and that tile is empty once it has moved off it */
+		return tile == '#' || (tile == 'B' && !(rowPos == 2 && columnPos == 2));
+	}
 }
 
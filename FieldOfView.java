@@ -0,0 +1,148 @@
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+/**
+ * Works out which tiles can be seen from a tile, using recursive shadowcasting: the area around
+ * the tile is split into eight octants, and each is scanned row by row outwards, narrowing the
+ * range of slopes still in view each time a wall is passed. Only walls block sight.
+ * What can be seen from a tile only depends on the terrain's walls, so answers are cached, keeping
+ * the most recently used ones (see MAX_CACHED) so a big map does not fill memory with tiles nobody stands on.
+ * A changed map file gives a new Terrain with its own FieldOfView, so the cache never holds answers
+ * for walls that have moved.
+ */
+public class FieldOfView {
+
+	/* How x and y step in each of the eight octants */
+	private static final int[][] OCTANTS = {
+		{1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+		{-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+	};
+
+	/* The most positions and radii kept in the cache, once it is full the least recently used is dropped */
+	public static final int MAX_CACHED = 4096;
+
+	/* The tiles sight is worked out over */
+	private final TileGrid tiles;
+	/* Visibility already worked out, keyed by position and radius (see key()), in order of last use.
+	   Only used while holding its lock, as looking an entry up changes the order */
+	private final LinkedHashMap<Long, VisibilitySet> cache;
+
+
+	/**
+	 * Constructor for FieldOfView
+	 * @param tiles : the terrain's tiles, where '#' blocks sight
+	 */
+	public FieldOfView(TileGrid tiles) {
+		this.tiles = tiles;
+		cache = new LinkedHashMap<Long, VisibilitySet>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Entry<Long, VisibilitySet> eldest) {
+				return size() > MAX_CACHED;
+			}
+		};
+	}
+
+	/**
+	 * Gives back the tiles that can be seen from a position, working them out the first time they are asked for
+	 * @param rowPos, columnPos : The row/column number of the tile being looked from
+	 * @param radius : how many tiles away to look in each direction, making a square of (2 * radius + 1) tiles a side
+	 * @return : the tiles that can be seen
+	 */
+	public VisibilitySet visibleFrom(int rowPos, int columnPos, int radius) {
+		Long key = key(rowPos, columnPos, radius);
+		VisibilitySet visible;
+		synchronized (cache) {
+			visible = cache.get(key);
+		}
+		if (visible != null) {
+			return visible;
+		}
+		/* Worked out without holding the lock, so other games are not held up. Two threads may work out
+		   the same position at once, but they get the same answer, so it does not matter which one is kept */
+		visible = compute(rowPos, columnPos, radius);
+		synchronized (cache) {
+			cache.put(key, visible);
+		}
+		return visible;
+	}
+
+	/**
+	 * @return : the number of positions and radii with their visibility cached
+	 */
+	public int getCachedCount() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	private VisibilitySet compute(int rowPos, int columnPos, int radius) {
+		VisibilitySet visible = new VisibilitySet(radius);
+		/* The tile being looked from can always be seen */
+		visible.markVisible(0, 0);
+		for (int[] octant : OCTANTS) {
+			castLight(visible, rowPos, columnPos, radius, 1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+		}
+		return visible;
+	}
+
+	/**
+	 * Scans one octant outwards from the given row, where everything between the slopes start and end is in view
+	 */
+	private void castLight(VisibilitySet visible, int rowPos, int columnPos, int radius, int row,
+			double start, double end, int xx, int xy, int yx, int yy) {
+		if (start < end) {
+			return;
+		}
+		double newStart = 0;
+		for (int distance = row; distance <= radius; distance++) {
+			boolean blocked = false;
+			int dy = -distance;
+			for (int dx = -distance; dx <= 0; dx++) {
+				/* The slopes of the left and right edges of this tile */
+				double leftSlope = (dx - 0.5) / (dy + 0.5);
+				double rightSlope = (dx + 0.5) / (dy - 0.5);
+				if (start < rightSlope) {
+					continue;
+				}else if (end > leftSlope) {
+					break;
+				}
+
+				int columnOffset = dx * xx + dy * xy;
+				int rowOffset = dx * yx + dy * yy;
+				visible.markVisible(rowOffset, columnOffset);
+				boolean wall = blocksSight(rowPos + rowOffset, columnPos + columnOffset);
+
+				if (blocked) {
+					if (wall) {
+						newStart = rightSlope;
+					}else {
+						blocked = false;
+						start = newStart;
+					}
+				}else if (wall && distance < radius) {
+					/* A wall starts here, scan the part of the next row still in view before it */
+					blocked = true;
+					castLight(visible, rowPos, columnPos, radius, distance + 1, start, leftSlope, xx, xy, yx, yy);
+					newStart = rightSlope;
+				}
+			}
+			if (blocked) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Walls and anything outside of the map block sight
+	 */
+	private boolean blocksSight(int rowPos, int columnPos) {
+		if (rowPos < 0 || rowPos >= tiles.getRowCount() || columnPos < 0 || columnPos >= tiles.getColumnCount()) {
+			return true;
+		}
+		return tiles.get(rowPos, columnPos) == '#';
+	}
+
+	private static long key(int rowPos, int columnPos, int radius) {
+		return ((long) rowPos << 40) | ((long) (columnPos & 0xFFFFFF) << 16) | (radius & 0xFFFF);
+	}
+}
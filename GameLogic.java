@@ -1,5 +1,10 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Contains the main logic of the game
@@ -9,19 +14,48 @@ public class GameLogic {
 	private Map map;
 	private HumanPlayer humanPlayer;
 	private BotPlayer botPlayer;
+	/* Every bot in the game, botPlayer is always the first one */
+	private ArrayList<BotPlayer> botPlayers;
 	private boolean gameRunning;
 	private boolean isHumanTurn;
+	/* Zobrist hash of the players, the human's gold and whose turn it is. 
+	   Combined with the hash of the map's tiles this identifies the state of the game */
+	private long playerHash;
+	/* Changes to the map file waiting to be laid over the map, added by MapReloader */
+	private ConcurrentLinkedQueue<TerrainChange> pendingTerrainChanges;
+	/* Used to choose where players are added to the map */
+	private Random random;
+	/* Whether LOOK hides tiles that are behind walls */
+	private boolean lineOfSight;
+	/* How many random tiles to try when adding a player, before looking through the whole map for a free one */
+	private static final int PLACEMENT_ATTEMPTS = 1000;
 	
 	/**
 	* Constructor for GameLogic
 	* @param : the file path to the map
 	*/
 	public GameLogic(String mapFilePath) {
-		map = new Map(mapFilePath);
-		humanPlayer = new HumanPlayer();
-		botPlayer = new BotPlayer();
+		this(new Map(mapFilePath), new HumanPlayer(), new BotPlayer(), new Random());
+	}
+	
+	/**
+	* Constructor for GameLogic, for games not played through the console
+	* @param map : the map to play on
+	* @param humanPlayer : the player trying to escape
+	* @param botPlayer : the first bot
+	* @param random : used to choose where players are added, seed it to make games repeatable
+	*/
+	public GameLogic(Map map, HumanPlayer humanPlayer, BotPlayer botPlayer, Random random) {
+		this.map = map;
+		this.humanPlayer = humanPlayer;
+		this.botPlayer = botPlayer;
+		this.random = random;
+		botPlayers = new ArrayList<>();
+		botPlayers.add(botPlayer);
 		gameRunning = true;
 		isHumanTurn = true;
+		playerHash = ZobristHash.gold(0) ^ ZobristHash.humanTurn();
+		pendingTerrainChanges = new ConcurrentLinkedQueue<>();
 	}
 	
 	
@@ -55,6 +89,25 @@ public class GameLogic {
     */
     public void togglePlayerTurn() {
     	isHumanTurn = !isHumanTurn;
+    	playerHash ^= ZobristHash.humanTurn();
+    }
+    
+    /**
+	* Returns a hash of the state of the game, covering the tiles, the players' positions, 
+	* the human's gold and whose turn it is. Two games in the same state have the same hash.
+    * @return : the Zobrist hash of the game
+    */
+    public long getStateHash() {
+    	return map.getTileHash() ^ playerHash;
+    }
+    
+    /**
+	* Switches LOOK between showing the whole 5x5 grid and only showing the tiles the player can see,
+	* with tiles hidden behind walls shown as '?'.
+    * @param lineOfSight : true to hide tiles behind walls
+    */
+    public void setLineOfSight(boolean lineOfSight) {
+    	this.lineOfSight = lineOfSight;
     }
     
     /**
@@ -65,6 +118,36 @@ public class GameLogic {
     	return botPlayer;
     }
     
+    /**
+	* Returns every bot in the game
+    * @return : the bot players, in the order they act in
+    */
+    public List<BotPlayer> getBotPlayers() {
+    	return botPlayers;
+    }
+    
+    /**
+	* Returns the human player
+    * @return : the human player in the game
+    */
+    public HumanPlayer getHumanPlayer() {
+    	return humanPlayer;
+    }
+    
+    /**
+	* Takes an immutable copy of the state of the game. The map is shared rather than copied,
+	* so this only costs as much as recording the players.
+    * @return : a snapshot of the map, the players and whose turn it is
+    */
+    public GameSnapshot snapshot() {
+    	PlayerRecord[] players = new PlayerRecord[botPlayers.size() + 1];
+    	players[0] = PlayerRecord.of(humanPlayer);
+    	for (int i = 0; i < botPlayers.size(); i++) {
+    		players[i + 1] = PlayerRecord.of(botPlayers.get(i));
+    	}
+    	return new GameSnapshot(map.getTiles(), map.getGoldRequired(), players, isHumanTurn, getStateHash());
+    }
+    
     /**
 	* Returns the player based on whose turn it is
     * @return : humanPlayer if it is the user's turn, botPlayer otherwise.
@@ -83,29 +166,94 @@ public class GameLogic {
     * @param playerType : the player we are adding to the map, true for HumanPlayer type, false for BotPlayer type
     */
     public void addPlayerToMap(boolean playerType) {
+    	if (playerType) {
+    		placePlayerOnMap(humanPlayer, true);
+    	}else {
+    		placePlayerOnMap(botPlayer, false);
+    	}
+    }
+    
+    /**
+	* Creates another bot and adds it to a random location on the map
+    * @return : the new bot player
+    */
+    public BotPlayer addBotPlayer() {
+    	return addBotPlayer(new BotPlayer());
+    }
+    
+    /**
+	* Adds another bot to a random location on the map
+    * @param newBot : the bot to add
+    * @return : the bot that was added
+    */
+    public BotPlayer addBotPlayer(BotPlayer newBot) {
+    	botPlayers.add(newBot);
+    	placePlayerOnMap(newBot, false);
+    	return newBot;
+    }
+    
+    /**
+	* Adds the given player to a random location on the map
+    * @param player : the player we are adding to the map
+    * @param isHuman : true if player is the HumanPlayer, false for a BotPlayer
+    * @throws IllegalStateException if there is no free tile left to add the player to
+    */
+    private void placePlayerOnMap(Player player, boolean isHuman) {
     	
-    	Random randomRow = new Random();
-    	Random randomColumn = new Random();
     	int rowPos = 0;
     	int columnPos = 0; 
-    	char [][] mapRepresentation = map.getMap();
+    	TileGrid mapRepresentation = map.getTiles();
     	
     	/* Generate a random row and column number until we find a position that is not a wall, does not have gold on it, or has
-    	   not already got a player standing on it (for when we add the bot player) */
+    	   not already got a player standing on it (for when we add the bot players) */
+    	int attempts = 0;
     	do {
-    		rowPos = randomRow.nextInt(map.getRowCount());
-    		columnPos = randomColumn.nextInt(map.getColumnCount());
-    	}while(mapRepresentation[rowPos][columnPos] == '#' || mapRepresentation[rowPos][columnPos] == 'G'|| mapRepresentation[rowPos][columnPos] == 'P');
+    		if (attempts == PLACEMENT_ATTEMPTS) {
+    			/* The map may be almost full, so look through every tile for the free ones rather than guessing forever */
+    			ArrayList<Integer> freeTiles = new ArrayList<>();
+    			for (int i = 0; i < map.getRowCount(); i++) {
+    				for (int j = 0; j < map.getColumnCount(); j++) {
+    					if (isFreeTile(mapRepresentation.get(i, j))) {
+    						freeTiles.add(i * map.getColumnCount() + j);
+    					}
+    				}
+    			}
+    			if (freeTiles.isEmpty()) {
+    				throw new IllegalStateException("No free tile left on the map to add a player to");
+    			}
+    			int freeTile = freeTiles.get(random.nextInt(freeTiles.size()));
+    			rowPos = freeTile / map.getColumnCount();
+    			columnPos = freeTile % map.getColumnCount();
+    			break;
+    		}
+    		rowPos = random.nextInt(map.getRowCount());
+    		columnPos = random.nextInt(map.getColumnCount());
+    		attempts++;
+    	}while(!isFreeTile(mapRepresentation.get(rowPos, columnPos)));
     	
     	/* Write the players position on the map */
-    	map.writePlayerPositionOnMap(playerType, rowPos, columnPos);
+    	map.writePlayerPositionOnMap(isHuman, rowPos, columnPos);
 
     	/* Record the players position on the map, so we can move them when they use a MOVE command */
-    	if (playerType) {
-    		humanPlayer.setPlayerPosition(rowPos, columnPos);
-    	}else {
-    		botPlayer.setPlayerPosition(rowPos, columnPos);
-    	}
+    	player.setPlayerPosition(rowPos, columnPos);
+    	playerHash ^= playerKey(player);
+    }
+    
+    /**
+	* @param tile : a tile on the map
+    * @return : true if a player can be added to the tile
+    */
+    private static boolean isFreeTile(char tile) {
+    	return tile != '#' && tile != 'G' && tile != 'P' && tile != 'B';
+    }
+    
+    /**
+	* @param player : the player to work out the Zobrist key of
+    * @return : the key for the player's current position and the item they are standing on
+    */
+    private long playerKey(Player player) {
+    	return ZobristHash.player(player == humanPlayer, player.getPlayerRowPosition(), 
+    			player.getPlayerColumnPosition(), player.getItemPlayerIsOn());
     }
     
     /**
@@ -116,12 +264,50 @@ public class GameLogic {
     * 		    the amount of gold needed to win the game.
     */
     public String performAction(String command) {
+    	return performAction(getPlayer(), command);
+    }
+    
+    /**
+	* Performs the action specified by the given player, regardless of whose turn it is
+    * @param player : the player performing the command
+    * @param command : the command specified by the player to be executed.
+    * @return : A string depending on the command specified
+    */
+    public String performAction(Player player, String command) {
+    	
+    	/* Slow turns are recorded by Java Flight Recorder, when a recording is running */
+    	TurnEvent event = new TurnEvent();
+    	event.begin();
+    	
+    	/* Bring the map up to date with any changes made to its file */
+    	if (!pendingTerrainChanges.isEmpty()) {
+    		applyPendingTerrainChanges();
+    	}
+    	String outcome = dispatchAction(player, command);
+    	
+    	event.end();
+    	if (event.shouldCommit()) {
+    		event.command = command;
+    		event.actor = player == humanPlayer ? "Human" : "Bot " + (botPlayers.indexOf(player) + 1);
+    		event.outcome = outcome;
+    		event.commit();
+    	}
+    	return outcome;
+    }
+    
+    /**
+	* Calls the method for the command specified by the player
+    * @param player : the player performing the command
+    * @param command : the command specified by the player to be executed.
+    * @return : A string depending on the command specified
+    */
+    private String dispatchAction(Player player, String command) {
     	
     	/* Compare the processed commands specified by the player with the available commands,
     	   in order to decide what method to execute */ 
     	String [] availableCommands = humanPlayer.getAvaliableCommands();
     	if (command.equals("Invalid")) {
-    		return "Invalid Command"; 
+    		return GameRules.INVALID_COMMAND; 
     	} else if (command.equals(availableCommands[0])){
     		/* If the processed command is "HELLO" then call hello() */
     		return hello();
@@ -129,19 +315,16 @@ public class GameLogic {
     		return gold();
     	} else if (command.equals(availableCommands[2]) || command.equals(availableCommands[3]) || command.equals(availableCommands[4]) || command.equals(availableCommands[5])) {
     		char direction = command.charAt(command.length()-1);
-    		if (isHumanTurn) {
-    			return move(direction, humanPlayer);
-    		}else {
-    			return move(direction, botPlayer);
-    		}
+    		return move(direction, player);
     	} else if (command.equals(availableCommands[6])) {
-    		return pickup();
-    	}else if (command.equals(availableCommands[7])) {
-    		if (isHumanTurn) {
-    			return look(humanPlayer);
+    		/* Only the human player can collect gold */
+    		if (player == humanPlayer) {
+    			return pickup();
     		}else {
-    			return look(botPlayer);
+    			return GameRules.FAIL;
     		}
+    	}else if (command.equals(availableCommands[7])) {
+    		return look(player);
     	}else{
     		return quitGame();
     	}
@@ -152,7 +335,7 @@ public class GameLogic {
     * @return : Gold required to win
     */
     public String hello() {
-    	String goldToWinMessage = "Gold To win: " + map.getGoldRequired();
+    	String goldToWinMessage = GameRules.goldToWinMessage(map.getGoldRequired());
         return goldToWinMessage;
     }
 	
@@ -162,7 +345,7 @@ public class GameLogic {
      * @return : Gold currently owned
      */
     public String gold() {
-    	String goldCurrentlyOwnedMessage = "Gold owned: " + humanPlayer.getGoldOwned();
+    	String goldCurrentlyOwnedMessage = GameRules.goldOwnedMessage(humanPlayer.getGoldOwned());
         return goldCurrentlyOwnedMessage;
     }
 
@@ -175,31 +358,29 @@ public class GameLogic {
     public String move(char direction, Player player) {
     	
     	/* Get player's current position, then change this accordingly depending on the direction */
-    	int rowToMoveTo = player.getPlayerRowPosition();
-    	int columnToMoveTo = player.getPlayerColumnPosition();
-    	
-        if (direction == 'N') {
-        	rowToMoveTo -= 1;
-        }else if (direction == 'S') {
-        	rowToMoveTo += 1;
-        }else if (direction == 'E') {
-            columnToMoveTo += 1;
-        }else if (direction == 'W') {
-            columnToMoveTo -= 1;
-        }
+    	int rowToMoveTo = GameRules.rowAfterMove(player.getPlayerRowPosition(), direction);
+    	int columnToMoveTo = GameRules.columnAfterMove(player.getPlayerColumnPosition(), direction);
         
-        if (map.getMap()[rowToMoveTo][columnToMoveTo] == '#') {
-        	return "Fail";
+        /* Maps without walls around the edge can be walked off, which fails like walking into a wall */
+        if (!GameRules.isOnMap(rowToMoveTo, columnToMoveTo, map.getRowCount(), map.getColumnCount())) {
+        	return GameRules.FAIL;
+        }else if (GameRules.isWall(map.getTile(rowToMoveTo, columnToMoveTo))) {
+        	return GameRules.FAIL;
+        }else if (player != humanPlayer && map.getTile(rowToMoveTo, columnToMoveTo) == 'B') {
+        	/* Two bots cannot stand on the same tile */
+        	return GameRules.FAIL;
         }else {
         	/*If the player is not moving into a wall: 
         	   Replace the 'P'/'B' with the item the player should be standing on, as the player is about to move */ 
         	map.setItemPosition(player.getPlayerRowPosition(), player.getPlayerColumnPosition(), player.getItemPlayerIsOn());
+        	playerHash ^= playerKey(player);
         	/* Set the new item the player will be standing on when they move */
-        	player.setItemPlayerIsOn(map.getMap()[rowToMoveTo][columnToMoveTo]);
+        	player.setItemPlayerIsOn(map.getTile(rowToMoveTo, columnToMoveTo));
         	/* Write the player's position */
-        	map.writePlayerPositionOnMap(isHumanTurn, rowToMoveTo, columnToMoveTo);
+        	map.writePlayerPositionOnMap(player == humanPlayer, rowToMoveTo, columnToMoveTo);
         	player.setPlayerPosition(rowToMoveTo, columnToMoveTo);
-        	return "Success";
+        	playerHash ^= playerKey(player);
+        	return GameRules.SUCCESS;
         }
     }
     
@@ -215,6 +396,12 @@ public class GameLogic {
     	int columnNum = player.getPlayerColumnPosition()-2;
     	int currentRowNum = rowNum;
     	int initialColumnNum = columnNum;
+    	/* In line of sight mode, only the tiles that can be seen from the player's position are shown.
+    	   These only depend on the terrain, so they are worked out once per position and then cached */
+    	VisibilitySet visibleTiles = null;
+    	if (lineOfSight) {
+    		visibleTiles = map.getTerrain().getFieldOfView().visibleFrom(player.getPlayerRowPosition(), player.getPlayerColumnPosition(), 2);
+    	}
 
     	/* Convert the map to a 5x5 grid as String with the player at the centre */ 
     	for (int i = 0; i < 25; i++) {
@@ -224,8 +411,13 @@ public class GameLogic {
         		currentRowNum++;
         		rowNum = currentRowNum;
         	}
+        	if (visibleTiles != null && !visibleTiles.isVisible(i/5 - 2, i%5 - 2)) {
+        		playerSurroundings = playerSurroundings + "?";
+        		columnNum++;
+        		continue;
+        	}
         	try {
-        		playerSurroundings = playerSurroundings + map.getMap()[rowNum][columnNum];
+        		playerSurroundings = playerSurroundings + map.getTile(rowNum, columnNum);
         	}catch (ArrayIndexOutOfBoundsException e) {
         		/* If we are trying to show an area outside of the map, we represent this as
         		   a '#' (a wall)  */ 
@@ -244,12 +436,14 @@ public class GameLogic {
     */
     public String pickup() {
     	/* If the player is standing on a gold piece, incremend their gold score and replace the gold piece with a '.' */
-    	if (humanPlayer.getItemPlayerIsOn() == 'G') {
+    	if (GameRules.canPickUp(humanPlayer.getItemPlayerIsOn())) {
+    		playerHash ^= playerKey(humanPlayer) ^ ZobristHash.gold(humanPlayer.getGoldOwned());
     		humanPlayer.setItemPlayerIsOn('.');
     		humanPlayer.incrementGoldOwned();
-    		return "Sucess. Gold Owned: " + humanPlayer.getGoldOwned();
+    		playerHash ^= playerKey(humanPlayer) ^ ZobristHash.gold(humanPlayer.getGoldOwned());
+    		return GameRules.pickedUpMessage(humanPlayer.getGoldOwned());
     	}else {
-    		return "Fail";
+    		return GameRules.FAIL;
     	}    
     }
     
@@ -259,10 +453,10 @@ public class GameLogic {
     * @return : A message saying whether the player has won or not
     */
     public String quitGame() {
-    	String winningMessage = "WIN - You Escape the Dungeon Feeling Rich";
-    	String losingMessage = "LOSE";
+    	String winningMessage = GameRules.WIN;
+    	String losingMessage = GameRules.LOSE;
     	/* If the player is on an exit tile, and has the amount of gold required to win, then print "WIN..." */
-    	if (humanPlayer.getItemPlayerIsOn() == 'E' && humanPlayer.getGoldOwned() == map.getGoldRequired()) {
+    	if (GameRules.hasEscaped(humanPlayer.getItemPlayerIsOn(), humanPlayer.getGoldOwned(), map.getGoldRequired())) {
     		gameRunning = false;
     		return winningMessage; 
     	}else {
@@ -271,12 +465,78 @@ public class GameLogic {
     	}
     } 
     
+    /**
+    * Queues a change to the map file to be laid over the map before the next command is performed.
+    * Can be called from any thread.
+    * @param change : the tiles that changed in the map file
+    */
+    public void queueTerrainChange(TerrainChange change) {
+    	pendingTerrainChanges.add(change);
+    }
+    
+    /**
+    * Lays every queued change to the map file over the map.
+    * Tiles this game has changed itself (gold that has been picked up) are kept as they are,
+    * and tiles underneath players change the item the player is standing on instead.
+    */
+    public void applyPendingTerrainChanges() {
+    	TerrainChange change;
+    	while ((change = pendingTerrainChanges.poll()) != null) {
+    		/* Changes are made one after another, skip any made to a version of the map we are not using */
+    		if (map.getTerrain() != change.getOldTerrain()) {
+    			continue;
+    		}
+    		TileGrid oldTiles = change.getOldTerrain().getTiles();
+    		TileGrid newTiles = change.getNewTerrain().getTiles();
+    		for (int i = 0; i < change.getChangedTileCount(); i++) {
+    			int rowPos = change.getChangedRow(i);
+    			int columnPos = change.getChangedColumn(i);
+    			char oldTile = oldTiles.get(rowPos, columnPos);
+    			char newTile = newTiles.get(rowPos, columnPos);
+    			Player playerOnTile = getPlayerAt(rowPos, columnPos);
+    			if (playerOnTile != null) {
+    				if (playerOnTile.getItemPlayerIsOn() == oldTile) {
+    					/* A player cannot be stuck inside a wall, so they stand on an empty tile instead */
+    					playerHash ^= playerKey(playerOnTile);
+    					playerOnTile.setItemPlayerIsOn(newTile == '#' ? '.' : newTile);
+    					playerHash ^= playerKey(playerOnTile);
+    				}
+    			}else if (map.getTile(rowPos, columnPos) == oldTile) {
+    				map.setItemPosition(rowPos, columnPos, newTile);
+    			}
+    		}
+    		map.updateTerrain(change.getNewTerrain());
+    	}
+    }
+    
+    /**
+    * @param rowPos, columnPos : a position on the map
+    * @return : the player standing at that position, or null if there is none
+    */
+    private Player getPlayerAt(int rowPos, int columnPos) {
+    	if (humanPlayer.getPlayerRowPosition() == rowPos && humanPlayer.getPlayerColumnPosition() == columnPos) {
+    		return humanPlayer;
+    	}
+    	for (BotPlayer bot : botPlayers) {
+    		if (bot.getPlayerRowPosition() == rowPos && bot.getPlayerColumnPosition() == columnPos) {
+    			return bot;
+    		}
+    	}
+    	return null;
+    }
+    
     /**
     * Checks whether the bot is standing on the same tile as the human and vice versa. 
     * @return : true if bot and player are standing on each other, false otherwise.
     */
     public boolean isGameLost(){
-    	if (humanPlayer.getItemPlayerIsOn() == 'B' || botPlayer.getItemPlayerIsOn() == 'P') {
+    	boolean caught = humanPlayer.getItemPlayerIsOn() == 'B';
+    	for (BotPlayer bot : botPlayers) {
+    		if (bot.getItemPlayerIsOn() == 'P') {
+    			caught = true;
+    		}
+    	}
+    	if (caught) {
     		gameRunning = false;
     		return true;
     	}else {
@@ -287,47 +547,101 @@ public class GameLogic {
 
 	public static void main(String[] args){
     	
+		/* Any extra bots to add to the map can be passed as "--bots <number>", and the game
+		   can be played in real time with "--realtime [ticks per second]" */
+		int extraBots = 0;
+		double ticksPerSecond = 0;
+		boolean lineOfSight = false;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--bots") && i + 1 < args.length) {
+				extraBots = Math.max(0, Integer.parseInt(args[i+1]) - 1);
+			}else if (args[i].equals("--realtime")) {
+				ticksPerSecond = 20;
+				if (i + 1 < args.length && !args[i+1].startsWith("--")) {
+					ticksPerSecond = Double.parseDouble(args[i+1]);
+				}
+			}else if (args[i].equals("--line-of-sight")) {
+				lineOfSight = true;
+			}
+		}
+		
+		/* List the maps in the current directory, from the catalog so the map files do not all have to be read */
+		MapCatalog catalog = new MapCatalog(new File("."));
+		catalog.refresh();
+		List<MapCatalogEntry> maps = catalog.getMaps();
+		if (!maps.isEmpty()) {
+			System.out.println("Maps available:");
+			for (int i = 0; i < Math.min(maps.size(), 20); i++) {
+				MapCatalogEntry entry = maps.get(i);
+				System.out.println("  " + entry.getShortName() + " - " + entry.getMapName() + " (" + entry.getRowCount()
+									+ "x" + entry.getColumnCount() + ", " + entry.getGoldRequired() + " gold to win)");
+			}
+			if (maps.size() > 20) {
+				System.out.println("  ... and " + (maps.size() - 20) + " more");
+			}
+		}
+		
 		/* Welcome message to the user */
 		System.out.println("Enter the Name of a Map below to play:");					
 		/* Gather the user input and use this to create a gamelogic object */
     	Scanner scanner = new Scanner(System.in);
     	String mapName = scanner.nextLine().trim();
-    	GameLogic logic = new GameLogic(mapName + ".txt");
+    	/* The user can type either the file name or the name of the map, here and if asked again because the map could not be read */
+    	GameLogic logic = new GameLogic(new Map(catalog.resolve(mapName), catalog::resolve), new HumanPlayer(), new BotPlayer(), new Random());
+    	logic.setLineOfSight(lineOfSight);
     	/* Add both players to the map and print beginning message to the user */
     	logic.addPlayerToMap(true);
 		logic.addPlayerToMap(false);
+		for (int i = 0; i < extraBots; i++) {
+			logic.addBotPlayer();
+		}
 		System.out.println("You find yourself in the " + logic.getMap().getMapName()
 							+ ". Find enough gold to exit the map and win. Do not let the "
 							+ "bot catch you!");
+		Terrain terrain = logic.getMap().getTerrain();
+		if (!terrain.isWinnable()) {
+			System.out.println("Beware: this map has " + terrain.getGoldCount() + " gold and " + terrain.getExitCount()
+								+ " exits, so it cannot be won.");
+		}
 	
-		
-		while (logic.gameRunning()) {
-			/* get a command from the player (bot or human) */
-			logic.getPlayer().generateCommand();
-			
-			/* If it's the players turn, we ouput the result of their command to the console */
-			if (logic.getPlayerTurn()) {
-				System.out.println(logic.performAction(logic.getPlayer().getNextAction()));
-			}else {
-				/* If it's the bots turn and they choose the look command we need to use
-				   setMapAsLastSeen() to make sure they this information is stored 
-				   by the bot and can be used to find the best direction to move in. */
-				if (logic.getPlayer().getCommand() == logic.getPlayer().getAvaliableCommands()[7]) {
-					logic.getBotPlayer().setMapAsLastSeen(logic.performAction(logic.getPlayer().getNextAction()));
-				}else {
-					/* If the bot is not using the look command, we can simply perform the action it specifies */
-					logic.performAction(logic.getPlayer().getNextAction());
+		/* Keep the game up to date if the map file is edited while it is being played */
+		MapReloader reloader = null;
+		try {
+			reloader = new MapReloader();
+			reloader.watch(logic);
+			reloader.start();
+		} catch (IOException e) {
+			System.out.println("Changes to the map file will not be picked up.");
+		}
+	
+		if (ticksPerSecond > 0) {
+			/* In real time the game does not wait for the user to type. The bots move twice a second */
+			RealTimeLoop loop = new RealTimeLoop(logic, ticksPerSecond, (int) Math.max(1, Math.round(ticksPerSecond / 2)));
+			loop.run();
+			System.out.println(loop.getTimingSummary());
+		}else {
+			/* Each tick the human enters a command, and then every bot takes its turn.
+			   The bots decide on their commands while the human is typing */
+			TickScheduler scheduler = new TickScheduler(logic);
+			scheduler.setSpeculating(true);
+			while (logic.gameRunning()) {
+				/* We ouput the result of the human's command to the console */
+				String result = scheduler.tick();
+				if (result != null) {
+					System.out.println(result);
+				}
+				
+				/* Check whether a bot and the player ended up on the same square, if they did the game is lost. */
+				if(scheduler.wasHumanCaught()) {
+					System.out.println("The Bot Caught You! You Lose!");
 				}
 			}
-			
-			/* Check whether the bot and player are standing on the same square, if they are the game is lost. */
-			if(logic.isGameLost()) {
-				System.out.println("The Bot Caught You! You Lose!");
-			}
-
-			logic.togglePlayerTurn();
+			scheduler.shutdown();
 		}
 		
+		if (reloader != null) {
+			reloader.close();
+		}
 		scanner.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+/**
+ * The rules of the game and the messages players are given, shared by GameLogic and SharedDungeon
+ * so both always play by the same rules.
+ */
+public final class GameRules {
+
+	/* Messages given back for commands */
+	public static final String INVALID_COMMAND = "Invalid Command";
+	public static final String SUCCESS = "Success";
+	public static final String FAIL = "Fail";
+	public static final String WIN = "WIN - You Escape the Dungeon Feeling Rich";
+	public static final String LOSE = "LOSE";
+
+
+	private GameRules() {
+	}
+
+	/**
+	 * @param goldRequired : gold required to win on the map
+	 * @return : the message given for HELLO
+	 */
+	public static String goldToWinMessage(int goldRequired) {
+		return "Gold To win: " + goldRequired;
+	}
+
+	/**
+	 * @param goldOwned : the gold the player owns
+	 * @return : the message given for GOLD
+	 */
+	public static String goldOwnedMessage(int goldOwned) {
+		return "Gold owned: " + goldOwned;
+	}
+
+	/**
+	 * @param goldOwned : the gold the player owns, after picking up
+	 * @return : the message given for a successful PICKUP
+	 */
+	public static String pickedUpMessage(int goldOwned) {
+		return "Sucess. Gold Owned: " + goldOwned;
+	}
+
+	/**
+	 * @param rowPos : the row the player is on
+	 * @param direction : the direction of the movement, 'N', 'S', 'E' or 'W'
+	 * @return : the row the player moves onto
+	 */
+	public static int rowAfterMove(int rowPos, char direction) {
+		if (direction == 'N') {
+			return rowPos - 1;
+		}else if (direction == 'S') {
+			return rowPos + 1;
+		}
+		return rowPos;
+	}
+
+	/**
+	 * @param columnPos : the column the player is on
+	 * @param direction : the direction of the movement, 'N', 'S', 'E' or 'W'
+	 * @return : the column the player moves onto
+	 */
+	public static int columnAfterMove(int columnPos, char direction) {
+		if (direction == 'E') {
+			return columnPos + 1;
+		}else if (direction == 'W') {
+			return columnPos - 1;
+		}
+		return columnPos;
+	}
+
+	/**
+	 * @param rowPos, columnPos : The row/column number of the tile
+	 * @param rowCount, columnCount : the number of rows and columns in the map
+	 * @return : true if the tile is on the map. Moving off the map fails like moving into a wall.
+	 */
+	public static boolean isOnMap(int rowPos, int columnPos, int rowCount, int columnCount) {
+		return rowPos >= 0 && rowPos < rowCount && columnPos >= 0 && columnPos < columnCount;
+	}
+
+	/**
+	 * @param tile : the tile a player is trying to move onto
+	 * @return : true if no player can ever move onto it
+	 */
+	public static boolean isWall(char tile) {
+		return tile == '#';
+	}
+
+	/**
+	 * @param itemPlayerIsOn : the item the player is standing on
+	 * @return : true if the player can pick up gold
+	 */
+	public static boolean canPickUp(char itemPlayerIsOn) {
+		return itemPlayerIsOn == 'G';
+	}
+
+	/**
+	 * @param itemPlayerIsOn : the item the player is standing on when they quit
+	 * @param goldOwned : the gold the player owns
+	 * @param goldRequired : gold required to win on the map
+	 * @return : true if quitting wins: the player is on an exit with exactly the gold required
+	 */
+	public static boolean hasEscaped(char itemPlayerIsOn, int goldOwned, int goldRequired) {
+		return itemPlayerIsOn == 'E' && goldOwned == goldRequired;
+	}
+}
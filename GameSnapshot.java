@@ -0,0 +1,162 @@
+/**
+ * An immutable copy of the state of a game, taken through GameLogic.snapshot().
+ * The tiles are shared with the game and with every other snapshot, so taking
+ * a snapshot does not copy the map, and applying a command to a snapshot only copies
+ * the parts of the map it changes. This lets lookahead bots, spectators and checkpoints
+ * fork the game as often as they like without affecting the running game.
+ */
+public final class GameSnapshot {
+
+	/* The tiles of the map, with the players written on to it */
+	private final TileGrid tiles;
+	/* Gold required for the human player to win */
+	private final int goldRequired;
+	/* The human player is always players[0], followed by the bots in the order they act.
+	   The array is never changed once the snapshot is made */
+	private final PlayerRecord[] players;
+	/* Whose turn it is */
+	private final boolean isHumanTurn;
+	/* Zobrist hash of the whole state (see ZobristHash) */
+	private final long hash;
+
+
+	/**
+	 * Constructor for GameSnapshot
+	 * @param tiles : the tiles of the map
+	 * @param goldRequired : gold required to win
+	 * @param players : the human player followed by the bots. The array must not be changed afterwards.
+	 * @param isHumanTurn : true if it is the human's turn
+	 * @param hash : the Zobrist hash of the state, as given by GameLogic.getStateHash()
+	 */
+	public GameSnapshot(TileGrid tiles, int goldRequired, PlayerRecord[] players, boolean isHumanTurn, long hash) {
+		this.tiles = tiles;
+		this.goldRequired = goldRequired;
+		this.players = players;
+		this.isHumanTurn = isHumanTurn;
+		this.hash = hash;
+	}
+
+	/**
+	 * @return : the Zobrist hash of the state. Equal states have equal hashes.
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * @return : the tiles of the map
+	 */
+	public TileGrid getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * @return : Gold required to win
+	 */
+	public int getGoldRequired() {
+		return goldRequired;
+	}
+
+	/**
+	 * @return : the number of players, the human and every bot
+	 */
+	public int getPlayerCount() {
+		return players.length;
+	}
+
+	/**
+	 * @param playerIndex : 0 for the human player, 1 onwards for the bots
+	 * @return : the state of that player
+	 */
+	public PlayerRecord getPlayer(int playerIndex) {
+		return players[playerIndex];
+	}
+
+	/**
+	 * @return : the state of the human player
+	 */
+	public PlayerRecord getHumanPlayer() {
+		return players[0];
+	}
+
+	/**
+	 * @return : true if it is the human's turn, false for the bot
+	 */
+	public boolean isHumanTurn() {
+		return isHumanTurn;
+	}
+
+	/**
+	 * @return : a snapshot where it is the other player's turn
+	 */
+	public GameSnapshot togglePlayerTurn() {
+		return new GameSnapshot(tiles, goldRequired, players, !isHumanTurn, hash ^ ZobristHash.humanTurn());
+	}
+
+	/**
+	 * Moves a player, following the same rules as GameLogic.move()
+	 * @param playerIndex : 0 for the human player, 1 onwards for the bots
+	 * @param direction : The direction of the movement ('N', 'S', 'E' or 'W')
+	 * @return : the snapshot after the move, or this snapshot if the move failed
+	 */
+	public GameSnapshot move(int playerIndex, char direction) {
+		PlayerRecord player = players[playerIndex];
+		int rowToMoveTo = GameRules.rowAfterMove(player.getRowPosition(), direction);
+		int columnToMoveTo = GameRules.columnAfterMove(player.getColumnPosition(), direction);
+
+		if (!GameRules.isOnMap(rowToMoveTo, columnToMoveTo, tiles.getRowCount(), tiles.getColumnCount())) {
+			return this;
+		}
+		char destination = tiles.get(rowToMoveTo, columnToMoveTo);
+		if (GameRules.isWall(destination) || (!player.isHuman() && destination == 'B')) {
+			return this;
+		}
+
+		/* Put back the item the player was standing on, then write the player on to its new tile */
+		char playerTile = player.isHuman() ? 'P' : 'B';
+		TileGrid newTiles = tiles.with(player.getRowPosition(), player.getColumnPosition(), player.getItemPlayerIsOn())
+				.with(rowToMoveTo, columnToMoveTo, playerTile);
+		PlayerRecord movedPlayer = player.movedTo(rowToMoveTo, columnToMoveTo, destination);
+		PlayerRecord[] newPlayers = players.clone();
+		newPlayers[playerIndex] = movedPlayer;
+
+		/* Swap the keys of everything that changed */
+		long newHash = hash
+				^ ZobristHash.tile(player.getRowPosition(), player.getColumnPosition(), tiles.get(player.getRowPosition(), player.getColumnPosition()))
+				^ ZobristHash.tile(player.getRowPosition(), player.getColumnPosition(), player.getItemPlayerIsOn())
+				^ ZobristHash.tile(rowToMoveTo, columnToMoveTo, destination)
+				^ ZobristHash.tile(rowToMoveTo, columnToMoveTo, playerTile)
+				^ ZobristHash.player(player) ^ ZobristHash.player(movedPlayer);
+		return new GameSnapshot(newTiles, goldRequired, newPlayers, isHumanTurn, newHash);
+	}
+
+	/**
+	 * Picks up the gold the human player is standing on, following the same rules as GameLogic.pickup()
+	 * @return : the snapshot after picking up the gold, or this snapshot if there was no gold
+	 */
+	public GameSnapshot pickup() {
+		if (!GameRules.canPickUp(players[0].getItemPlayerIsOn())) {
+			return this;
+		}
+		PlayerRecord[] newPlayers = players.clone();
+		newPlayers[0] = players[0].withGoldPickedUp();
+		long newHash = hash ^ ZobristHash.player(players[0]) ^ ZobristHash.gold(players[0].getGoldOwned())
+				^ ZobristHash.player(newPlayers[0]) ^ ZobristHash.gold(newPlayers[0].getGoldOwned());
+		return new GameSnapshot(tiles, goldRequired, newPlayers, isHumanTurn, newHash);
+	}
+
+	/**
+	 * @return : true if a bot and the human are standing on the same tile
+	 */
+	public boolean isGameLost() {
+		if (players[0].getItemPlayerIsOn() == 'B') {
+			return true;
+		}
+		for (int i = 1; i < players.length; i++) {
+			if (players[i].getItemPlayerIsOn() == 'P') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -1,6 +1,7 @@
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Represents the fields and behaviours needed by the human player, 
@@ -13,6 +14,10 @@ public class HumanPlayer extends Player {
      private int goldOwned; 
      /* Buffered reader used to read text entered by the user from the console */
      private BufferedReader userInput;
+     /* Lines typed by the user waiting to be used, only used once readInputInBackground() has been called */
+     private ConcurrentLinkedQueue<String> typedCommands;
+     /* Set once the console's input has ended (or could not be read), so nothing more will ever be typed */
+     private volatile boolean inputEnded;
      
  	/**
  	 * Constructor for HumanPlayer
@@ -39,16 +44,59 @@ public class HumanPlayer extends Player {
        }
     
 
+     /**
+      * Starts reading the user's input on a background thread, so generateCommand() no longer 
+      * waits for the user to type. Used when the game runs in real time (see RealTimeLoop).
+      */
+     public void readInputInBackground() {
+    	 typedCommands = new ConcurrentLinkedQueue<>();
+    	 Thread inputThread = new Thread(() -> {
+    		 try {
+    			 String line;
+    			 while ((line = userInput.readLine()) != null) {
+    				 typedCommands.add(line);
+    			 }
+    		 } catch (IOException e) {
+    			 e.printStackTrace();
+    		 }
+    		 /* Only set after the last line has been queued, see hasInputEnded() */
+    		 inputEnded = true;
+    	 }, "console-input");
+    	 /* A daemon thread, so waiting for input does not stop the program from exiting */
+    	 inputThread.setDaemon(true);
+    	 inputThread.start();
+     }
+
+     /**
+      * @return : true once the console's input has ended and every line typed has been used,
+      *           so no command will ever come again. While this is false, a null command when reading
+      *           in the background just means nothing has been typed yet.
+      */
+     public boolean hasInputEnded() {
+    	 return inputEnded && (typedCommands == null || typedCommands.isEmpty());
+     }
+     
   	/**
-  	 * Reads in the user's input from the console
+  	 * Reads in the user's input from the console.
+  	 * If the input is being read in the background, this takes the next line typed
+  	 * without waiting, and the command is null if nothing has been typed.
+  	 * Otherwise the command is null once the input has ended, and nothing more will ever be typed.
   	 */
      @Override
      public void generateCommand() {
+    	if (typedCommands != null) {
+    		this.setCommand(typedCommands.poll());
+    		return;
+    	}
      	try {
  			this.setCommand(userInput.readLine());
  		} catch (IOException e) {
  			e.printStackTrace();
+ 			this.setCommand(null);
  		}
+     	if (this.getCommand() == null) {
+     		inputEnded = true;
+     	}
     }
      
      /**
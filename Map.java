@@ -1,18 +1,38 @@
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.Scanner;
+import java.util.function.Function;
 
 /**
  * Reads in the map from the file, and stores important information about the map.
+ * The terrain read from the file is shared with every other game on the same map (see TerrainCache),
+ * and this game's grid starts out sharing all of its tiles. Only the parts of the grid this game
+ * changes (gold picked up, players moving about) are copied.
  */
 public class Map {
 
-	/* Representation of the map */
-	private char[][] map;
+	/* The default map, used after the user has failed to enter a map three times */
+	private static final Terrain DEFAULT_TERRAIN = new Terrain("default", "Very Small Labyrinth of Doom", 2, TileGrid.of(new char[][]{
+		{'#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#'},
+		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
+		{'#','.','.','.','.','.','.','G','.','.','.','.','.','.','.','.','.','E','.','#'},
+		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
+		{'#','.','.','E','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
+		{'#','.','.','.','.','.','.','.','.','.','.','.','G','.','.','.','.','.','.','#'},
+		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
+		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
+		{'#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#'}
+		}));
+
+	/* The shared terrain this map was loaded from */
+	private Terrain terrain;
+	/* Representation of the map. Changing a tile replaces the grid,
+	   so grids handed out earlier (to snapshots for example) never change */
+	private TileGrid tiles;
+	/* Zobrist hash of every tile on the map, kept up to date as tiles change */
+	private long tileHash;
 	/* Map name */
 	private String mapName;  
 	/* Gold required for the human player to win */
@@ -29,6 +49,24 @@ public class Map {
 		readMap(fileName);
 	}
 	
+	/**
+	 * Constructor that accepts a map to read in from, and a way to find the file of any other map name the user
+	 * enters if that map cannot be read (for example MapCatalog.resolve()).
+	 * @param fileName : the file path of the map file.
+	 * @param filePathOf : gives the file path for a map name entered by the user.
+	 */
+	public Map(String fileName, Function<String, String> filePathOf){
+		readMap(fileName, filePathOf);
+	}
+	
+	/**
+	 * Constructor for a map using terrain that has already been loaded.
+	 * @param terrain : the terrain to play on.
+	 */
+	public Map(Terrain terrain){
+		useTerrain(terrain);
+	}
+	
 	/**
     * @return : Gold required to exit the current map
     */
@@ -37,10 +75,39 @@ public class Map {
     }
 
 	/**
-    * @return : The map stored as a 2D array.
+    * @return : A copy of the map stored as a 2D array.
     */
     public char[][] getMap() {
-        return map;
+        return tiles.toArray();
+    }
+    
+	/**
+    * @return : The map as an immutable grid of tiles.
+    */
+    public TileGrid getTiles() {
+        return tiles;
+    }
+    
+	/**
+	* @param rowPos, columnPos : The row/column number of the tile
+    * @return : The tile at that position on the map.
+    */
+    public char getTile(int rowPos, int columnPos) {
+        return tiles.get(rowPos, columnPos);
+    }
+    
+	/**
+    * @return : The Zobrist hash of the tiles on the map (see ZobristHash).
+    */
+    public long getTileHash() {
+        return tileHash;
+    }
+    
+	/**
+    * @return : The shared terrain the map was loaded from.
+    */
+    public Terrain getTerrain() {
+        return terrain;
     }
 
 	/**
@@ -72,9 +139,9 @@ public class Map {
      */
     public void writePlayerPositionOnMap(boolean isHumanPlayer, int rowPos, int columnPos) {
     	if (isHumanPlayer) {
-    		map[rowPos][columnPos] = 'P';
+    		setItemPosition(rowPos, columnPos, 'P');
     	}else {
-    		map[rowPos][columnPos] = 'B';
+    		setItemPosition(rowPos, columnPos, 'B');
     	}
     	
     }
@@ -85,30 +152,38 @@ public class Map {
      * @param item : The item we want to put on the map.
      */
     public void setItemPosition(int rowPos, int columnPos, char item) {
-    	map[rowPos][columnPos] = item;
+    	/* Swap the key of the old tile for the key of the new one */
+    	tileHash ^= ZobristHash.tile(rowPos, columnPos, tiles.get(rowPos, columnPos)) ^ ZobristHash.tile(rowPos, columnPos, item);
+    	tiles = tiles.with(rowPos, columnPos, item);
     }
     
     
     /**
-     * Reads in the map from a file.
+     * Reads in the map from a file, or takes it from TerrainCache if the file has already been read.
      * @param fileNames : Name of the map's file.
      */
     public void readMap(String fileName) {
-    	
-    	/*
-    	 * Used in converting the map from a string to a 2D array.
-    	 */
-    	String mapRepresentation = "";
-    	String nextLine = "";
+    	readMap(fileName, mapName -> mapName + ".txt");
+    }
     
+    /**
+     * Reads in the map from a file, or takes it from TerrainCache if the file has already been read.
+     * If it cannot be read the user is asked for another map name, up to three attempts in all.
+     * @param fileName : Name of the map's file.
+     * @param filePathOf : gives the file path for a map name entered by the user.
+     */
+    public void readMap(String fileName, Function<String, String> filePathOf) {
+    	
     	boolean mapFoundSuccessfully;
     	boolean sensibleGoldRequired;
     	boolean mapFormattedCorrectly;
     	boolean usingDefaultMap = false;
     	int attemptCounter = 0;
     	String filePath = fileName;
-    	BufferedReader fileReader = null;
     	BufferedReader inputReader = null;
+    	Terrain loadedTerrain = null;
+    	/* The time spent loading every attempt, not counting the user typing, in case we fall back to the default map */
+    	long attemptsLoadNanos = 0;
     	
     	
     	do {
@@ -127,49 +202,37 @@ public class Map {
         		usingDefaultMap = true;
         		break;
         	}
+    		/* Slow loads are recorded by Java Flight Recorder, when a recording is running */
+    		MapLoadEvent loadEvent = new MapLoadEvent();
+    		loadEvent.begin();
+    		long loadStart = System.nanoTime();
     		try {
-        		fileReader = new BufferedReader(new FileReader(filePath));
-        		
-        		String firstLine = fileReader.readLine();
-        		String secondLine = fileReader.readLine();
-        			
-        		/* The first two lines of the map file should specify the name of the map on one line, 
+    			/* The first two lines of the map file should specify the name of the map on one line, 
         		  and the amount of gold needed to win on the other. If this is not the case 
-        		  mapFormattedCorrectly is set to false*/
-        		try {
-        			goldRequired = Integer.parseInt(secondLine.replace("win", "").trim());
-        			mapName = firstLine.replace("name", "").trim();
-        		}catch (NumberFormatException e) {
-        			try {
-            			goldRequired = Integer.parseInt(firstLine.replace("win", "").trim());
-                		mapName = secondLine.replace("name", "").trim();
-        			}catch (NumberFormatException x) {
-        				mapFormattedCorrectly = false;
-        			}
-        		}	
-        			
-        		/* If the gold required to win the game is lower than one,
-        		   this is not considered a sensible value and sensibleGoldRequired is set to false*/
-        	    if (goldRequired < 1) {
-        	    	sensibleGoldRequired = false;
-        	    }
-        			
-        	    /* If there are no formatting issues with the map and we successfully read the map,
-        	       then we convert the map to be one long string. We also count how many rows the map has 
-        	     	(to use when converting the string to a 2d array.*/
-                if (mapFoundSuccessfully && sensibleGoldRequired && mapFormattedCorrectly) {
-                	mapRepresentation = "";
-            		while((nextLine = fileReader.readLine()) != null){
-            			mapRepresentation += nextLine + "\n";
-            			rowCount++;
-            		}	
-                }               
-        
+        		  mapFormattedCorrectly is set to false, and if the gold required to win the game
+        		  is lower than one sensibleGoldRequired is set to false */
+    			loadedTerrain = TerrainCache.load(filePath);
         	}catch (FileNotFoundException e) {
         		mapFoundSuccessfully = false;	
+        	}catch (MapFormatException e) {
+        		if (e.isUnsuitableGoldRequired()) {
+        			sensibleGoldRequired = false;
+        		}else {
+        			mapFormattedCorrectly = false;
+        		}
         	}catch (IOException e) {
-        			e.printStackTrace();
+        		e.printStackTrace();
+        		mapFoundSuccessfully = false;
         	}
+    		attemptsLoadNanos += System.nanoTime() - loadStart;
+    		loadEvent.end();
+    		if (loadEvent.shouldCommit()) {
+    			loadEvent.file = filePath;
+    			loadEvent.bytes = new File(filePath).length();
+    			loadEvent.loaded = mapFoundSuccessfully && sensibleGoldRequired && mapFormattedCorrectly;
+    			loadEvent.rows = loadEvent.loaded ? loadedTerrain.getTiles().getRowCount() : 0;
+    			loadEvent.commit();
+    		}
     		
         	/* If any issues were found when dealing with the map, we raise this issue to the user,
         	   and let them enter the map again (we do this at most three times) */
@@ -185,7 +248,11 @@ public class Map {
         		inputReader = new BufferedReader(new InputStreamReader(System.in));
         		try {
         			if (attemptCounter != 3) {
-        				filePath = inputReader.readLine() + ".txt";
+        				String mapName = inputReader.readLine();
+        				/* Once the input has ended, trying the same file again leads on to the default map */
+        				if (mapName != null) {
+        					filePath = filePathOf.apply(mapName);
+        				}
         			}
 				} catch (IOException e) {
 					e.printStackTrace();
@@ -194,33 +261,25 @@ public class Map {
         	
     	}while((!mapFoundSuccessfully || !sensibleGoldRequired || !mapFormattedCorrectly));
     	
-    	try {
-    		if (fileReader != null) {
-    			fileReader.close();
-    		}
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-    	
     	/* Call setDefaultMap if the map the user entered could not be read. */
     	if (usingDefaultMap) {
     		System.out.println("Number of Attempts to Load Map Has Been Passed\n"
 								+ "You Will Be Placed in a Default Map.");
+    		MapLoadEvent fallbackEvent = new MapLoadEvent();
+    		fallbackEvent.begin();
     		setDefaultMap();
+    		fallbackEvent.end();
+    		if (fallbackEvent.shouldCommit()) {
+    			fallbackEvent.file = filePath;
+    			fallbackEvent.rows = getRowCount();
+    			fallbackEvent.loaded = true;
+    			fallbackEvent.fallbackToDefault = true;
+    			fallbackEvent.attemptsLoadNanos = attemptsLoadNanos;
+    			fallbackEvent.commit();
+    		}
     		
     	}else {
-    		/* If the user's map was successfully read as one long String, then we can convert this
-    		   string, representing the map, to a 2D char array. */
-        	columnCount = mapRepresentation.substring(0, mapRepresentation.indexOf("\n")).length();
-        	map = new char[rowCount][columnCount];
-        	int characterCounter = 0;
-        	String mapAsOneLine = mapRepresentation.replaceAll("\\s+","");
-        	for (int i = 0; i < rowCount; i++) {
-        		for (int j = 0; j < columnCount; j++) {
-        			map[i][j] = mapAsOneLine.charAt(characterCounter);
-        			characterCounter++;
-        	    }
-    	     }	
+    		useTerrain(loadedTerrain);
     	}
 
     }
@@ -230,23 +289,33 @@ public class Map {
      * after the user has tried three times to input a map name
      */
     public void setDefaultMap() {
-		mapName = "Very Small Labyrinth of Doom";
-		goldRequired = 2;
-		map = new char[][]{
-		{'#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#'},
-		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
-		{'#','.','.','.','.','.','.','G','.','.','.','.','.','.','.','.','.','E','.','#'},
-		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
-		{'#','.','.','E','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
-		{'#','.','.','.','.','.','.','.','.','.','.','.','G','.','.','.','.','.','.','#'},
-		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
-		{'#','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','.','#'},
-		{'#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#','#'}
-		};
-		rowCount = 9;
-		columnCount = 20;
+    	useTerrain(DEFAULT_TERRAIN);
     }
     
+    /**
+     * Switches to a new version of the terrain, after its file has changed on disk. 
+     * The tiles are left alone, GameLogic lays the changed tiles over them itself.
+     * @param newTerrain : the new version of the terrain, with the same number of rows and columns.
+     */
+    public void updateTerrain(Terrain newTerrain) {
+    	terrain = newTerrain;
+    	mapName = newTerrain.getMapName();
+    	goldRequired = newTerrain.getGoldRequired();
+    }
     
+    /**
+     * Starts the map off as a fresh copy of the given terrain. 
+     * No tiles are copied until they are changed.
+     * @param newTerrain : the terrain to use.
+     */
+    private void useTerrain(Terrain newTerrain) {
+    	terrain = newTerrain;
+    	mapName = newTerrain.getMapName();
+    	goldRequired = newTerrain.getGoldRequired();
+    	tiles = newTerrain.getTiles();
+    	tileHash = newTerrain.getTileHash();
+    	rowCount = tiles.getRowCount();
+    	columnCount = tiles.getColumnCount();
+    }
     
-}
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * An index of the map files in a directory, so maps can be listed and chosen without reading them.
+ * For each file only the name and gold required, and the number of rows and columns, are read.
+ * The index is saved in the directory (see INDEX_FILE_NAME), and when it is refreshed only files whose
+ * size or last modified time have changed are read again.
+ */
+public class MapCatalog {
+
+	/* The name of the file the index is saved in, inside the catalogued directory */
+	public static final String INDEX_FILE_NAME = ".mapcatalog";
+
+	/* The directory holding the map files */
+	private File directory;
+	/* What is known about each file, by file name */
+	private TreeMap<String, MapCatalogEntry> entries;
+
+
+	/**
+	 * Constructor for MapCatalog, loading the saved index if there is one
+	 * @param directory : the directory holding the map files
+	 */
+	public MapCatalog(File directory) {
+		this.directory = directory;
+		entries = new TreeMap<>();
+		loadIndex();
+	}
+
+	/**
+	 * Brings the index up to date with the directory: new and changed files are read,
+	 * deleted files are dropped, and the index is saved if anything changed.
+	 */
+	public void refresh() {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(".txt"));
+		if (files == null) {
+			return;
+		}
+		boolean changed = false;
+		TreeMap<String, MapCatalogEntry> refreshed = new TreeMap<>();
+		for (File file : files) {
+			MapCatalogEntry entry = entries.get(file.getName());
+			if (entry == null || entry.getFileSize() != file.length() || entry.getLastModified() != file.lastModified()) {
+				entry = probe(file);
+				changed = true;
+			}
+			refreshed.put(file.getName(), entry);
+		}
+		if (refreshed.size() != entries.size()) {
+			changed = true;
+		}
+		entries = refreshed;
+		if (changed) {
+			saveIndex();
+		}
+	}
+
+	/**
+	 * @return : every file that holds a usable map, sorted by file name
+	 */
+	public List<MapCatalogEntry> getMaps() {
+		List<MapCatalogEntry> maps = new ArrayList<>();
+		for (MapCatalogEntry entry : entries.values()) {
+			if (entry.isUsable()) {
+				maps.add(entry);
+			}
+		}
+		return maps;
+	}
+
+	/**
+	 * Finds a map by what the user typed, either the file name without '.txt' or the name of the map.
+	 * File names are checked first, so a name that matches a file always loads that file, as it did before there was a catalog.
+	 * @param name : what the user typed, case does not matter
+	 * @return : the map, or null if no usable map has that name
+	 */
+	public MapCatalogEntry find(String name) {
+		String trimmedName = name.trim();
+		List<MapCatalogEntry> maps = getMaps();
+		for (MapCatalogEntry entry : maps) {
+			if (entry.getShortName().equalsIgnoreCase(trimmedName)) {
+				return entry;
+			}
+		}
+		for (MapCatalogEntry entry : maps) {
+			if (entry.getMapName().equalsIgnoreCase(trimmedName)) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Works out which file the user meant, for use with Map.readMap()
+	 * @param name : what the user typed, either the file name without '.txt' or the name of the map
+	 * @return : the path of the map's file if it is in the catalog, otherwise the name with '.txt' added, as before there was a catalog
+	 */
+	public String resolve(String name) {
+		MapCatalogEntry entry = find(name);
+		return entry != null ? getFilePath(entry) : name + ".txt";
+	}
+
+	/**
+	 * @param entry : a map in this catalog
+	 * @return : the path of its file
+	 */
+	public String getFilePath(MapCatalogEntry entry) {
+		return new File(directory, entry.getFileName()).getPath();
+	}
+
+	/**
+	 * Reads only what the catalog needs from a map file: the header, and the number of rows and columns.
+	 * The rows are counted without being stored.
+	 */
+	private MapCatalogEntry probe(File file) {
+		long fileSize = file.length();
+		long lastModified = file.lastModified();
+		try (BufferedReader fileReader = new BufferedReader(new FileReader(file))) {
+			MapHeader header = MapHeader.read(fileReader);
+
+			/* Count the rows that are not blank, and take the number of columns from the first one,
+			   in the same way Terrain.read() does. The tiles are counted to catch rows that are too short */
+			int rowCount = 0;
+			int columnCount = 0;
+			int lineLength = 0;
+			long tileCount = 0;
+			boolean lineBlank = true;
+			char[] buffer = new char[8192];
+			int charsRead;
+			while ((charsRead = fileReader.read(buffer)) != -1) {
+				for (int i = 0; i < charsRead; i++) {
+					char c = buffer[i];
+					if (c == '\n') {
+						if (!lineBlank) {
+							if (rowCount == 0) {
+								columnCount = lineLength;
+							}
+							rowCount++;
+						}
+						lineLength = 0;
+						lineBlank = true;
+					}else if (c != '\r') {
+						lineLength++;
+						if (!Character.isWhitespace(c)) {
+							lineBlank = false;
+							tileCount++;
+						}
+					}
+				}
+			}
+			if (!lineBlank) {
+				if (rowCount == 0) {
+					columnCount = lineLength;
+				}
+				rowCount++;
+			}
+			if (rowCount == 0 || tileCount < (long) rowCount * columnCount) {
+				return unusable(file, fileSize, lastModified);
+			}
+			return new MapCatalogEntry(file.getName(), fileSize, lastModified, true,
+					header.getMapName(), header.getGoldRequired(), rowCount, columnCount);
+		} catch (IOException e) {
+			return unusable(file, fileSize, lastModified);
+		}
+	}
+
+	/**
+	 * Files that are not maps are still recorded, so they are not read again until they change
+	 */
+	private static MapCatalogEntry unusable(File file, long fileSize, long lastModified) {
+		return new MapCatalogEntry(file.getName(), fileSize, lastModified, false, "", 0, 0, 0);
+	}
+
+	/**
+	 * Loads the saved index. A missing or damaged index is ignored, and rebuilt by refresh().
+	 * Each line holds: file name, size, last modified, usable, gold required, rows, columns, map name,
+	 * separated by tabs. The map name comes last, as it may contain anything but a tab.
+	 */
+	private void loadIndex() {
+		File indexFile = new File(directory, INDEX_FILE_NAME);
+		if (!indexFile.isFile()) {
+			return;
+		}
+		try (BufferedReader indexReader = new BufferedReader(new FileReader(indexFile))) {
+			String line;
+			while ((line = indexReader.readLine()) != null) {
+				String[] fields = line.split("\t", 8);
+				if (fields.length != 8) {
+					continue;
+				}
+				entries.put(fields[0], new MapCatalogEntry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+						Boolean.parseBoolean(fields[3]), fields[7], Integer.parseInt(fields[4]),
+						Integer.parseInt(fields[5]), Integer.parseInt(fields[6])));
+			}
+		} catch (IOException | NumberFormatException e) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Saves the index, writing it to a temporary file first so a half-written index is never left behind
+	 */
+	private void saveIndex() {
+		File indexFile = new File(directory, INDEX_FILE_NAME);
+		File tempFile = new File(directory, INDEX_FILE_NAME + ".tmp");
+		try {
+			try (BufferedWriter indexWriter = new BufferedWriter(new FileWriter(tempFile))) {
+				for (MapCatalogEntry entry : entries.values()) {
+					indexWriter.write(entry.getFileName() + "\t" + entry.getFileSize() + "\t" + entry.getLastModified() + "\t"
+							+ entry.isUsable() + "\t" + entry.getGoldRequired() + "\t" + entry.getRowCount() + "\t"
+							+ entry.getColumnCount() + "\t" + entry.getMapName().replace('\t', ' '));
+					indexWriter.newLine();
+				}
+			}
+			Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			/* The catalog still works without a saved index, it is just slower to start next time */
+			tempFile.delete();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * What MapCatalog knows about one map file, without having loaded the map itself
+ */
+public final class MapCatalogEntry {
+
+	/* The name of the file, without its directory */
+	private final String fileName;
+	/* The size and last modified time of the file when it was read, used to tell if it has changed */
+	private final long fileSize;
+	private final long lastModified;
+	/* False if the file does not hold a usable map, in which case the fields below are not used */
+	private final boolean usable;
+	private final String mapName;
+	private final int goldRequired;
+	private final int rowCount;
+	private final int columnCount;
+
+
+	/**
+	 * Constructor for MapCatalogEntry
+	 */
+	public MapCatalogEntry(String fileName, long fileSize, long lastModified, boolean usable,
+			String mapName, int goldRequired, int rowCount, int columnCount) {
+		this.fileName = fileName;
+		this.fileSize = fileSize;
+		this.lastModified = lastModified;
+		this.usable = usable;
+		this.mapName = mapName;
+		this.goldRequired = goldRequired;
+		this.rowCount = rowCount;
+		this.columnCount = columnCount;
+	}
+
+	/**
+	 * @return : the name of the file, without its directory
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * @return : the name of the file without '.txt', which is what the user types to choose the map
+	 */
+	public String getShortName() {
+		return fileName.endsWith(".txt") ? fileName.substring(0, fileName.length() - 4) : fileName;
+	}
+
+	/**
+	 * @return : the size of the file in bytes
+	 */
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * @return : when the file was last modified, in milliseconds since 1970
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return : true if the file holds a usable map
+	 */
+	public boolean isUsable() {
+		return usable;
+	}
+
+	/**
+	 * @return : The name of the map.
+	 */
+	public String getMapName() {
+		return mapName;
+	}
+
+	/**
+	 * @return : Gold required to exit the map
+	 */
+	public int getGoldRequired() {
+		return goldRequired;
+	}
+
+	/**
+	 * @return : The number of rows in the map.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return : The number of columns in the map.
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+}
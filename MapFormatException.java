@@ -0,0 +1,30 @@
+import java.io.IOException;
+
+/**
+ * Thrown when a map file could be read, but does not hold a usable map
+ */
+public class MapFormatException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/* True if the only problem with the map was the gold required to win */
+	private final boolean unsuitableGoldRequired;
+
+
+	/**
+	 * Constructor for MapFormatException
+	 * @param message : what is wrong with the map
+	 * @param unsuitableGoldRequired : true if the map was formatted correctly, but the gold required to win was not sensible
+	 */
+	public MapFormatException(String message, boolean unsuitableGoldRequired) {
+		super(message);
+		this.unsuitableGoldRequired = unsuitableGoldRequired;
+	}
+
+	/**
+	 * @return : true if the map was formatted correctly, but the gold required to win was not sensible
+	 */
+	public boolean isUnsuitableGoldRequired() {
+		return unsuitableGoldRequired;
+	}
+}
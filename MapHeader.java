@@ -0,0 +1,69 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * The first two lines of a map file: the name of the map and the gold required to win, in either order
+ */
+public final class MapHeader {
+
+	/* Map name */
+	private final String mapName;
+	/* Gold required for the human player to win */
+	private final int goldRequired;
+
+
+	private MapHeader(String mapName, int goldRequired) {
+		this.mapName = mapName;
+		this.goldRequired = goldRequired;
+	}
+
+	/**
+	 * Reads the first two lines of a map file
+	 * @param fileReader : reader at the start of the file, left at the first row of the map
+	 * @return : the name and gold required
+	 * @throws MapFormatException if the lines are missing, or the gold required is not a sensible number
+	 * @throws IOException if the file could not be read
+	 */
+	public static MapHeader read(BufferedReader fileReader) throws IOException {
+		String firstLine = fileReader.readLine();
+		String secondLine = fileReader.readLine();
+		if (firstLine == null || secondLine == null) {
+			throw new MapFormatException("Missing map name or gold required", false);
+		}
+
+		/* The name and the gold required can be given in either order */
+		String mapName;
+		int goldRequired;
+		try {
+			goldRequired = Integer.parseInt(secondLine.replace("win", "").trim());
+			mapName = firstLine.replace("name", "").trim();
+		}catch (NumberFormatException e) {
+			try {
+				goldRequired = Integer.parseInt(firstLine.replace("win", "").trim());
+				mapName = secondLine.replace("name", "").trim();
+			}catch (NumberFormatException x) {
+				throw new MapFormatException("Gold required is not a number", false);
+			}
+		}
+
+		/* If the gold required to win the game is lower than one, this is not considered a sensible value */
+		if (goldRequired < 1) {
+			throw new MapFormatException("Unsuitable gold required: " + goldRequired, true);
+		}
+		return new MapHeader(mapName, goldRequired);
+	}
+
+	/**
+	 * @return : The name of the map.
+	 */
+	public String getMapName() {
+		return mapName;
+	}
+
+	/**
+	 * @return : Gold required to exit the map
+	 */
+	public int getGoldRequired() {
+		return goldRequired;
+	}
+}
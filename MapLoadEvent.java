@@ -0,0 +1,46 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event for an attempt to load a map (see Map.readMap()).
+ * Only loads taking longer than the threshold are recorded, which a recording's settings can change.
+ * For the switch to the default map the event only times the switch itself, and the time spent
+ * loading the failed attempts is given separately, leaving out the time the user spent typing map names.
+ */
+@Name("dungeon.MapLoad")
+@Label("Map Load")
+@Category("Dungeon of Doom")
+@Description("An attempt to load a map file, or the switch to the default map")
+@Threshold("10 ms")
+@StackTrace(false)
+public class MapLoadEvent extends jdk.jfr.Event {
+
+	@Label("File")
+	String file;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	@Label("Rows")
+	int rows;
+
+	@Label("Loaded")
+	@Description("False if the file was missing or did not hold a usable map")
+	boolean loaded;
+
+	@Label("Fallback To Default")
+	@Description("True if the default map was used after three failed attempts")
+	boolean fallbackToDefault;
+
+	@Label("Attempts Load Time")
+	@Description("For the switch to the default map, the time spent loading the failed attempts")
+	@Timespan
+	long attemptsLoadNanos;
+}
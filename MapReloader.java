@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Watches the map files of running games, and when one changes on disk, reads it again
+ * in the background and passes the tiles that changed on to every game using it.
+ * Games lay the changes over their own tiles the next time a command is performed
+ * (see GameLogic.queueTerrainChange()), so player positions and collected gold are kept,
+ * and no game has to wait while the file is read.
+ */
+public class MapReloader {
+
+	/* How long to wait after a file changes before reading it, so a file still being saved is not read half-written */
+	private static final long SETTLE_MILLIS = 50;
+
+	private WatchService watchService;
+	/* Directories already being watched */
+	private Set<Path> watchedDirectories;
+	/* Games being kept up to date. Games that are no longer used are dropped automatically */
+	private Set<GameLogic> games;
+	private Thread watchThread;
+
+
+	/**
+	 * Constructor for MapReloader
+	 * @throws IOException if the file system cannot be watched
+	 */
+	public MapReloader() throws IOException {
+		watchService = FileSystems.getDefault().newWatchService();
+		watchedDirectories = new HashSet<>();
+		games = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+	}
+
+	/**
+	 * Keeps a game up to date with changes to its map file.
+	 * Games on the default map are ignored, as it does not come from a file.
+	 * @param game : the game to keep up to date
+	 * @throws IOException if the map file's directory cannot be watched
+	 */
+	public void watch(GameLogic game) throws IOException {
+		Path file = Paths.get(game.getMap().getTerrain().getSource()).toAbsolutePath().normalize();
+		if (TerrainCache.get(file.toString()) == null) {
+			return;
+		}
+		synchronized (watchedDirectories) {
+			Path directory = file.getParent();
+			if (watchedDirectories.add(directory)) {
+				directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+			}
+		}
+		games.add(game);
+	}
+
+	/**
+	 * Starts watching for changes on a background thread
+	 */
+	public void start() {
+		watchThread = new Thread(this::watchForChanges, "map-reloader");
+		watchThread.setDaemon(true);
+		watchThread.start();
+	}
+
+	/**
+	 * Stops watching for changes
+	 */
+	public void close() {
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Reads a map file again and passes the tiles that changed, along with any new name or gold required,
+	 * on to every game using it.
+	 * Files that have not been loaded by any game, or that no longer hold a usable map, are ignored.
+	 * If the number of rows or columns changed, only games started afterwards get the new map.
+	 * @param filePath : the path of the map file
+	 * @return : the change that was passed on, or null if there was none
+	 */
+	public TerrainChange reload(String filePath) {
+		Terrain oldTerrain = TerrainCache.get(filePath);
+		if (oldTerrain == null) {
+			return null;
+		}
+		Terrain newTerrain;
+		try {
+			newTerrain = Terrain.read(oldTerrain.getSource());
+		} catch (IOException e) {
+			/* Most likely the file is still being written, wait for the next change */
+			return null;
+		}
+
+		TerrainChange change = TerrainChange.between(oldTerrain, newTerrain);
+		if (change != null && change.getChangedTileCount() == 0 && newTerrain.getMapName().equals(oldTerrain.getMapName())
+				&& newTerrain.getGoldRequired() == oldTerrain.getGoldRequired()) {
+			/* The file was saved without any changes, keep the terrain games are already using */
+			return null;
+		}
+		TerrainCache.put(filePath, newTerrain);
+		if (change == null) {
+			return null;
+		}
+
+		/* Every game is sent the change, even if only the name or gold required changed, so games move on to the new
+		   terrain and later changes still reach them. Each game skips changes to a map it is not using when it
+		   applies them on its own thread, so the games' maps are never read from this thread */
+		ArrayList<GameLogic> gamesToUpdate;
+		synchronized (games) {
+			gamesToUpdate = new ArrayList<>(games);
+		}
+		for (GameLogic game : gamesToUpdate) {
+			game.queueTerrainChange(change);
+		}
+		return change;
+	}
+
+	/**
+	 * Waits for file changes until the watch service is closed
+	 */
+	private void watchForChanges() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				Thread.sleep(SETTLE_MILLIS);
+				Path directory = (Path) key.watchable();
+				/* A file saved once can give more than one event, only read it once */
+				Set<Path> changedFiles = new HashSet<>();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+						changedFiles.add(directory.resolve((Path) event.context()));
+					}
+				}
+				key.reset();
+				for (Path changedFile : changedFiles) {
+					reload(changedFile.toString());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			/* The reloader has been closed */
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * The outcome of a single game played by Tournament
+ */
+public final class MatchResult {
+
+	/* What the match was played between */
+	private final String humanEntrant;
+	private final String botEntrant;
+	private final String mapName;
+	/* How the match ended. If neither is true, the match ran out of turns */
+	private final boolean humanWon;
+	private final boolean humanCaught;
+	/* The number of ticks played */
+	private final int turns;
+	/* The gold the human collected */
+	private final int goldCollected;
+	/* How long the bot took to decide on each of its commands, in nanoseconds */
+	private final long[] decisionNanos;
+
+
+	/**
+	 * Constructor for MatchResult
+	 */
+	public MatchResult(String humanEntrant, String botEntrant, String mapName, boolean humanWon, boolean humanCaught,
+			int turns, int goldCollected, long[] decisionNanos) {
+		this.humanEntrant = humanEntrant;
+		this.botEntrant = botEntrant;
+		this.mapName = mapName;
+		this.humanWon = humanWon;
+		this.humanCaught = humanCaught;
+		this.turns = turns;
+		this.goldCollected = goldCollected;
+		this.decisionNanos = decisionNanos;
+	}
+
+	/**
+	 * @return : the name of the human strategy
+	 */
+	public String getHumanEntrant() {
+		return humanEntrant;
+	}
+
+	/**
+	 * @return : the name of the bot strategy
+	 */
+	public String getBotEntrant() {
+		return botEntrant;
+	}
+
+	/**
+	 * @return : the name of the map played on
+	 */
+	public String getMapName() {
+		return mapName;
+	}
+
+	/**
+	 * @return : true if the human escaped with enough gold
+	 */
+	public boolean isHumanWon() {
+		return humanWon;
+	}
+
+	/**
+	 * @return : true if the bot caught the human
+	 */
+	public boolean isHumanCaught() {
+		return humanCaught;
+	}
+
+	/**
+	 * @return : the number of ticks played
+	 */
+	public int getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @return : the gold the human collected
+	 */
+	public int getGoldCollected() {
+		return goldCollected;
+	}
+
+	/**
+	 * @return : how long the bot took to decide on each of its commands, in nanoseconds
+	 */
+	public long[] getDecisionNanos() {
+		return decisionNanos;
+	}
+}
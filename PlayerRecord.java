@@ -0,0 +1,95 @@
+/**
+ * An immutable copy of the state of a player, as held in a GameSnapshot
+ */
+public final class PlayerRecord {
+
+	/* The row and column positions of the player on the map */
+	private final int rowPosition;
+	private final int columnPosition;
+	/* The item (character) the player is standing on */
+	private final char itemPlayerIsOn;
+	/* The amount of gold owned by the player, always zero for bots */
+	private final int goldOwned;
+	/* Whether this is the human player */
+	private final boolean isHuman;
+
+
+	/**
+	 * Constructor for PlayerRecord
+	 * @param rowPosition, columnPosition : the position of the player on the map
+	 * @param itemPlayerIsOn : the item the player is standing on
+	 * @param goldOwned : the amount of gold the player owns
+	 * @param isHuman : true for the human player, false for a bot
+	 */
+	public PlayerRecord(int rowPosition, int columnPosition, char itemPlayerIsOn, int goldOwned, boolean isHuman) {
+		this.rowPosition = rowPosition;
+		this.columnPosition = columnPosition;
+		this.itemPlayerIsOn = itemPlayerIsOn;
+		this.goldOwned = goldOwned;
+		this.isHuman = isHuman;
+	}
+
+	/**
+	 * Records the current state of a player
+	 * @param player : the player to record
+	 * @return : a record holding the player's position, item and gold
+	 */
+	public static PlayerRecord of(Player player) {
+		if (player instanceof HumanPlayer) {
+			HumanPlayer humanPlayer = (HumanPlayer) player;
+			return new PlayerRecord(player.getPlayerRowPosition(), player.getPlayerColumnPosition(),
+					player.getItemPlayerIsOn(), humanPlayer.getGoldOwned(), true);
+		}
+		return new PlayerRecord(player.getPlayerRowPosition(), player.getPlayerColumnPosition(),
+				player.getItemPlayerIsOn(), 0, false);
+	}
+
+	/**
+	 * @return : the row the player is on in the map
+	 */
+	public int getRowPosition() {
+		return rowPosition;
+	}
+
+	/**
+	 * @return : the column the player is on in the map
+	 */
+	public int getColumnPosition() {
+		return columnPosition;
+	}
+
+	/**
+	 * @return : the item the player is standing on ('G', '.', 'E' etc)
+	 */
+	public char getItemPlayerIsOn() {
+		return itemPlayerIsOn;
+	}
+
+	/**
+	 * @return : the amount of gold the player owns
+	 */
+	public int getGoldOwned() {
+		return goldOwned;
+	}
+
+	/**
+	 * @return : true if this is the human player
+	 */
+	public boolean isHuman() {
+		return isHuman;
+	}
+
+	/**
+	 * @return : a copy of this record with the player moved
+	 */
+	public PlayerRecord movedTo(int newRowPosition, int newColumnPosition, char newItemPlayerIsOn) {
+		return new PlayerRecord(newRowPosition, newColumnPosition, newItemPlayerIsOn, goldOwned, isHuman);
+	}
+
+	/**
+	 * @return : a copy of this record with the gold the player was standing on picked up
+	 */
+	public PlayerRecord withGoldPickedUp() {
+		return new PlayerRecord(rowPosition, columnPosition, '.', goldOwned + 1, isHuman);
+	}
+}
@@ -0,0 +1,121 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a game in real time: the game moves on at a fixed number of ticks per second,
+ * whether or not the user has typed anything. The user's input is read in the background,
+ * a tick with nothing typed does nothing for the human, and the bots keep moving regardless.
+ * The loop keeps track of how late each tick starts (jitter) and how many ticks take longer
+ * than the time they are given (overruns).
+ */
+public class RealTimeLoop {
+
+	/* The game being run and the scheduler that advances it */
+	private GameLogic logic;
+	private TickScheduler scheduler;
+	/* The time between the start of each tick, in nanoseconds */
+	private long tickNanos;
+	/* The bots act once every this many ticks, so they do not race around the map at the full tick rate */
+	private int ticksPerBotMove;
+
+	/* Measurements of how well the loop is keeping time */
+	private long ticksRun;
+	private long overrunCount;
+	private long totalJitterNanos;
+	private long maxJitterNanos;
+
+
+	/**
+	 * Constructor for RealTimeLoop
+	 * @param logic : the game to run, with the players already added to the map
+	 * @param ticksPerSecond : how many ticks to run each second, for example 20
+	 * @param ticksPerBotMove : the bots act once every this many ticks
+	 */
+	public RealTimeLoop(GameLogic logic, double ticksPerSecond, int ticksPerBotMove) {
+		this.logic = logic;
+		scheduler = new TickScheduler(logic);
+		tickNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ticksPerSecond);
+		this.ticksPerBotMove = Math.max(1, ticksPerBotMove);
+	}
+
+	/**
+	 * Runs the game until it ends, printing the result of each of the user's commands
+	 * and a message if the bot catches the user.
+	 */
+	public void run() {
+		logic.getHumanPlayer().readInputInBackground();
+		long nextTickStart = System.nanoTime();
+
+		while (logic.gameRunning()) {
+			long tickStart = System.nanoTime();
+			long jitter = tickStart - nextTickStart;
+			totalJitterNanos += jitter;
+			maxJitterNanos = Math.max(maxJitterNanos, jitter);
+
+			String result = scheduler.tick(ticksRun % ticksPerBotMove == 0);
+			ticksRun++;
+			if (result != null) {
+				System.out.println(result);
+			}
+			if (scheduler.wasHumanCaught()) {
+				System.out.println("The Bot Caught You! You Lose!");
+			}
+
+			long tickEnd = System.nanoTime();
+			if (tickEnd - tickStart > tickNanos) {
+				overrunCount++;
+			}
+			/* If we have fallen behind, start again from now rather than running the missed ticks back to back */
+			nextTickStart = Math.max(nextTickStart + tickNanos, tickEnd);
+			waitUntil(nextTickStart);
+		}
+		scheduler.shutdown();
+	}
+
+	/**
+	 * @return : the number of ticks run
+	 */
+	public long getTicksRun() {
+		return ticksRun;
+	}
+
+	/**
+	 * @return : the number of ticks that took longer than the time they were given
+	 */
+	public long getOverrunCount() {
+		return overrunCount;
+	}
+
+	/**
+	 * @return : the mean time between when a tick should have started and when it did, in nanoseconds
+	 */
+	public double getMeanJitterNanos() {
+		return ticksRun == 0 ? 0 : (double) totalJitterNanos / ticksRun;
+	}
+
+	/**
+	 * @return : the longest time between when a tick should have started and when it did, in nanoseconds
+	 */
+	public long getMaxJitterNanos() {
+		return maxJitterNanos;
+	}
+
+	/**
+	 * @return : a summary of how well the loop kept time
+	 */
+	public String getTimingSummary() {
+		return String.format("Ticks: %d, overruns: %d (%.2f%%), mean jitter: %.3f ms, max jitter: %.3f ms",
+				ticksRun, overrunCount, ticksRun == 0 ? 0.0 : 100.0 * overrunCount / ticksRun,
+				getMeanJitterNanos() / 1e6, maxJitterNanos / 1e6);
+	}
+
+	/**
+	 * Sleeps until System.nanoTime() reaches the given time
+	 */
+	private static void waitUntil(long nanoTime) {
+		long remaining;
+		while ((remaining = nanoTime - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+}
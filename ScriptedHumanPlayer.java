@@ -0,0 +1,45 @@
+import java.util.Random;
+
+/**
+ * A human player whose commands are generated rather than typed in, for playing games
+ * without anyone at the console (see Tournament). It wanders the map at random, picks up
+ * gold it walks over until it has exactly the gold required, and quits once it stands on an exit
+ * with that much gold, as having any more would lose the game.
+ */
+public class ScriptedHumanPlayer extends HumanPlayer {
+
+	/* Used to choose which direction to wander in */
+	private Random random;
+	/* Gold required to win on the map being played */
+	private int goldRequired;
+
+
+	/**
+	 * Constructor for ScriptedHumanPlayer
+	 * @param seed : seeds the directions the player wanders in
+	 * @param goldRequired : the gold required to win on the map being played
+	 */
+	public ScriptedHumanPlayer(long seed, int goldRequired) {
+		super();
+		random = new Random(seed);
+		this.goldRequired = goldRequired;
+	}
+
+	/**
+	 * Chooses the next command, instead of reading it from the console
+	 */
+	@Override
+	public void generateCommand() {
+		String[] availableCommands = this.getAvaliableCommands();
+		if (this.getItemPlayerIsOn() == 'G' && this.getGoldOwned() < goldRequired) {
+			/* availableCommands[6] is 'PICKUP' */
+			this.setCommand(availableCommands[6]);
+		}else if (this.getItemPlayerIsOn() == 'E' && this.getGoldOwned() == goldRequired) {
+			/* availableCommands[8] is 'QUIT' */
+			this.setCommand(availableCommands[8]);
+		}else {
+			/* availableCommands[2] to availableCommands[5] are the MOVE commands */
+			this.setCommand(availableCommands[random.nextInt(4) + 2]);
+		}
+	}
+}
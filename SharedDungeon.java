@@ -0,0 +1,436 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One large dungeon shared by many human players, each acting on their own thread at the same time.
+ * The map is split into square regions, each with its own lock, so players in different parts of the
+ * dungeon never wait for each other. A command only locks the regions it touches, and when it needs
+ * more than one (a move across a region border, or a LOOK near one) the locks are always taken in order
+ * of region number, so two players can never each hold a lock the other is waiting for.
+ * Each player should only have commands performed from one thread at a time.
+ * Run with: java SharedDungeon [map file] [--players n] [--threads n] [--turns n] [--region n] [--size n]
+ * to have scripted players wander a dungeon together, by default a randomly generated 512x512 one.
+ */
+public class SharedDungeon {
+
+	/* What every command from a player who has quit gives back */
+	public static final String LEFT_DUNGEON = "You have left the dungeon";
+
+	/* The terrain the dungeon starts from, shared with any other games on the same map */
+	private final Terrain terrain;
+	/* The number of rows and columns of tiles in each region */
+	private final int regionSize;
+	/* The number of regions across the map */
+	private final int regionColumns;
+	/* One lock per region */
+	private final ReentrantLock[] regionLocks;
+	/* The tiles of each region, stored row by row. A region shares the terrain's tiles until it
+	   first changes, then gets its own copy. Only read or written while holding the region's lock */
+	private final char[][] regionTiles;
+	/* Players who have quit, and can no longer act */
+	private final Set<HumanPlayer> quitPlayers;
+
+
+	/**
+	 * Constructor for SharedDungeon
+	 * @param terrain : the map to play on
+	 * @param regionSize : the number of rows and columns of tiles covered by each lock
+	 */
+	public SharedDungeon(Terrain terrain, int regionSize) {
+		this.terrain = terrain;
+		this.regionSize = Math.max(1, regionSize);
+		TileGrid tiles = terrain.getTiles();
+		int regionRows = (tiles.getRowCount() + this.regionSize - 1) / this.regionSize;
+		regionColumns = (tiles.getColumnCount() + this.regionSize - 1) / this.regionSize;
+		regionLocks = new ReentrantLock[regionRows * regionColumns];
+		for (int i = 0; i < regionLocks.length; i++) {
+			regionLocks[i] = new ReentrantLock();
+		}
+		regionTiles = new char[regionLocks.length][];
+		quitPlayers = ConcurrentHashMap.newKeySet();
+	}
+
+	/**
+	 * @return : the number of regions the map is split into
+	 */
+	public int getRegionCount() {
+		return regionLocks.length;
+	}
+
+	/**
+	 * @param player : a player added to the dungeon
+	 * @return : true if the player has quit, so can no longer act
+	 */
+	public boolean hasQuit(HumanPlayer player) {
+		return quitPlayers.contains(player);
+	}
+
+	/**
+	 * @param rowPos, columnPos : The row/column number of the tile
+	 * @return : the tile at that position, with any players on it
+	 */
+	public char getTile(int rowPos, int columnPos) {
+		int region = regionOf(rowPos, columnPos);
+		regionLocks[region].lock();
+		try {
+			return readTile(region, rowPos, columnPos);
+		} finally {
+			regionLocks[region].unlock();
+		}
+	}
+
+	/**
+	 * Adds a player to a random empty tile on the map
+	 * @param player : the player to add
+	 * @param random : used to choose the tile
+	 */
+	public void addPlayer(HumanPlayer player, Random random) {
+		TileGrid tiles = terrain.getTiles();
+		while (true) {
+			int rowPos = random.nextInt(tiles.getRowCount());
+			int columnPos = random.nextInt(tiles.getColumnCount());
+			int region = regionOf(rowPos, columnPos);
+			regionLocks[region].lock();
+			try {
+				char tile = readTile(region, rowPos, columnPos);
+				if (tile != '#' && tile != 'G' && tile != 'P') {
+					player.setItemPlayerIsOn(tile);
+					player.setPlayerPosition(rowPos, columnPos);
+					writeTile(region, rowPos, columnPos, 'P');
+					return;
+				}
+			} finally {
+				regionLocks[region].unlock();
+			}
+		}
+	}
+
+	/**
+	 * Performs the action specified by a player, following the same rules as GameLogic,
+	 * except that players block each other rather than catching each other.
+	 * @param player : the player performing the command
+	 * @param command : the processed command, from HumanPlayer.getNextAction()
+	 * @return : A string depending on the command specified
+	 */
+	public String performAction(HumanPlayer player, String command) {
+		String[] availableCommands = player.getAvaliableCommands();
+		if (hasQuit(player)) {
+			return LEFT_DUNGEON;
+		}else if (command.equals("Invalid")) {
+			return GameRules.INVALID_COMMAND;
+		} else if (command.equals(availableCommands[0])) {
+			return GameRules.goldToWinMessage(terrain.getGoldRequired());
+		} else if (command.equals(availableCommands[1])) {
+			return GameRules.goldOwnedMessage(player.getGoldOwned());
+		} else if (command.equals(availableCommands[2]) || command.equals(availableCommands[3])
+				|| command.equals(availableCommands[4]) || command.equals(availableCommands[5])) {
+			return move(player, command.charAt(command.length() - 1));
+		} else if (command.equals(availableCommands[6])) {
+			return pickup(player);
+		} else if (command.equals(availableCommands[7])) {
+			return look(player);
+		} else {
+			return quit(player);
+		}
+	}
+
+	/**
+	 * Moves a player, locking the region they are in and the region they are moving into
+	 * @param player : The player we are moving
+	 * @param direction : The direction of the movement
+	 * @return : If movement was a success or not
+	 */
+	public String move(HumanPlayer player, char direction) {
+		if (hasQuit(player)) {
+			return LEFT_DUNGEON;
+		}
+		int rowPos = player.getPlayerRowPosition();
+		int columnPos = player.getPlayerColumnPosition();
+		int rowToMoveTo = GameRules.rowAfterMove(rowPos, direction);
+		int columnToMoveTo = GameRules.columnAfterMove(columnPos, direction);
+		if (!isOnMap(rowToMoveTo, columnToMoveTo)) {
+			return GameRules.FAIL;
+		}
+
+		int fromRegion = regionOf(rowPos, columnPos);
+		int toRegion = regionOf(rowToMoveTo, columnToMoveTo);
+		/* Always lock the lower numbered region first */
+		ReentrantLock firstLock = regionLocks[Math.min(fromRegion, toRegion)];
+		ReentrantLock secondLock = regionLocks[Math.max(fromRegion, toRegion)];
+		firstLock.lock();
+		secondLock.lock();
+		try {
+			char destination = readTile(toRegion, rowToMoveTo, columnToMoveTo);
+			if (GameRules.isWall(destination) || destination == 'P') {
+				return GameRules.FAIL;
+			}
+			writeTile(fromRegion, rowPos, columnPos, player.getItemPlayerIsOn());
+			player.setItemPlayerIsOn(destination);
+			writeTile(toRegion, rowToMoveTo, columnToMoveTo, 'P');
+			player.setPlayerPosition(rowToMoveTo, columnToMoveTo);
+			return GameRules.SUCCESS;
+		} finally {
+			secondLock.unlock();
+			firstLock.unlock();
+		}
+	}
+
+	/**
+	 * Picks up the gold the player is standing on
+	 * @param player : the player picking up gold
+	 * @return : If the player successfully picked-up gold or not.
+	 */
+	public String pickup(HumanPlayer player) {
+		if (hasQuit(player)) {
+			return LEFT_DUNGEON;
+		}
+		int region = regionOf(player.getPlayerRowPosition(), player.getPlayerColumnPosition());
+		regionLocks[region].lock();
+		try {
+			if (GameRules.canPickUp(player.getItemPlayerIsOn())) {
+				player.setItemPlayerIsOn('.');
+				player.incrementGoldOwned();
+				return GameRules.pickedUpMessage(player.getGoldOwned());
+			}
+			return GameRules.FAIL;
+		} finally {
+			regionLocks[region].unlock();
+		}
+	}
+
+	/**
+	 * Shows the 5x5 grid around a player, locking every region the grid overlaps
+	 * @param player : The player who we are performing the look command on
+	 * @return : A String representation of the player's surroundings
+	 */
+	public String look(HumanPlayer player) {
+		if (hasQuit(player)) {
+			return LEFT_DUNGEON;
+		}
+		int topRow = player.getPlayerRowPosition() - 2;
+		int leftColumn = player.getPlayerColumnPosition() - 2;
+
+		/* Regions are numbered row by row, so going through them top to bottom, left to right
+		   takes the locks in order */
+		int firstRegionRow = Math.max(0, topRow) / regionSize;
+		int lastRegionRow = Math.min(terrain.getTiles().getRowCount() - 1, topRow + 4) / regionSize;
+		int firstRegionColumn = Math.max(0, leftColumn) / regionSize;
+		int lastRegionColumn = Math.min(terrain.getTiles().getColumnCount() - 1, leftColumn + 4) / regionSize;
+		for (int i = firstRegionRow; i <= lastRegionRow; i++) {
+			for (int j = firstRegionColumn; j <= lastRegionColumn; j++) {
+				regionLocks[i * regionColumns + j].lock();
+			}
+		}
+		try {
+			StringBuilder playerSurroundings = new StringBuilder();
+			for (int i = 0; i < 5; i++) {
+				if (i != 0) {
+					playerSurroundings.append('\n');
+				}
+				for (int j = 0; j < 5; j++) {
+					int rowPos = topRow + i;
+					int columnPos = leftColumn + j;
+					/* Outside of the map is shown as a wall */
+					playerSurroundings.append(isOnMap(rowPos, columnPos) ? readTile(regionOf(rowPos, columnPos), rowPos, columnPos) : '#');
+				}
+			}
+			return playerSurroundings.toString();
+		} finally {
+			for (int i = lastRegionRow; i >= firstRegionRow; i--) {
+				for (int j = lastRegionColumn; j >= firstRegionColumn; j--) {
+					regionLocks[i * regionColumns + j].unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Takes a player out of the dungeon. Any command the player gives afterwards is refused,
+	 * so their old tile is never written over again.
+	 * @param player : the player quitting
+	 * @return : A message saying whether the player has won or not
+	 */
+	public String quit(HumanPlayer player) {
+		if (hasQuit(player)) {
+			return LEFT_DUNGEON;
+		}
+		int rowPos = player.getPlayerRowPosition();
+		int columnPos = player.getPlayerColumnPosition();
+		int region = regionOf(rowPos, columnPos);
+		regionLocks[region].lock();
+		try {
+			writeTile(region, rowPos, columnPos, player.getItemPlayerIsOn());
+			quitPlayers.add(player);
+			if (GameRules.hasEscaped(player.getItemPlayerIsOn(), player.getGoldOwned(), terrain.getGoldRequired())) {
+				return GameRules.WIN;
+			}
+			return GameRules.LOSE;
+		} finally {
+			regionLocks[region].unlock();
+		}
+	}
+
+	/**
+	 * @return : the number of 'P' tiles on the map, which should be the number of players who have not quit.
+	 *           Only exact when no commands are being performed.
+	 */
+	public int countPlayerTiles() {
+		TileGrid tiles = terrain.getTiles();
+		int count = 0;
+		for (int i = 0; i < tiles.getRowCount(); i++) {
+			for (int j = 0; j < tiles.getColumnCount(); j++) {
+				if (getTile(i, j) == 'P') {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String mapFile = null;
+		int playerCount = 64;
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		int turns = 10000;
+		int regionSize = 16;
+		int mapSize = 512;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--players")) {
+				playerCount = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--threads")) {
+				threadCount = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--turns")) {
+				turns = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--region")) {
+				regionSize = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--size")) {
+				mapSize = Integer.parseInt(args[++i]);
+			}else {
+				mapFile = args[i];
+			}
+		}
+
+		Random random = new Random(42);
+		Terrain terrain = mapFile != null ? TerrainCache.load(mapFile) : randomTerrain(mapSize, random);
+		SharedDungeon dungeon = new SharedDungeon(terrain, regionSize);
+		List<HumanPlayer> players = new ArrayList<>();
+		for (int i = 0; i < playerCount; i++) {
+			HumanPlayer player = new ScriptedHumanPlayer(i, terrain.getGoldRequired());
+			dungeon.addPlayer(player, random);
+			players.add(player);
+		}
+		System.out.println(playerCount + " players in the " + terrain.getMapName() + " (" + terrain.getTiles().getRowCount()
+				+ "x" + terrain.getTiles().getColumnCount() + ", " + dungeon.getRegionCount() + " regions), on " + threadCount + " threads");
+
+		/* Each player takes all of their turns on one thread, while the other players act on theirs.
+		   Each player counts their own commands, so the threads share nothing but the dungeon */
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threadCount));
+		List<Future<Integer>> running = new ArrayList<>();
+		long start = System.nanoTime();
+		int turnsEach = turns;
+		for (HumanPlayer player : players) {
+			running.add(pool.submit(() -> {
+				int turn = 0;
+				for (; turn < turnsEach && !dungeon.hasQuit(player); turn++) {
+					player.generateCommand();
+					dungeon.performAction(player, player.getNextAction());
+				}
+				return turn;
+			}));
+		}
+		long commandCount = 0;
+		try {
+			for (Future<Integer> player : running) {
+				commandCount += player.get();
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		long elapsedNanos = System.nanoTime() - start;
+
+		int playersLeft = 0;
+		int winners = 0;
+		for (HumanPlayer player : players) {
+			if (!dungeon.hasQuit(player)) {
+				playersLeft++;
+			}else if (GameRules.hasEscaped(player.getItemPlayerIsOn(), player.getGoldOwned(), terrain.getGoldRequired())) {
+				winners++;
+			}
+		}
+		System.out.printf("%d commands in %.1f ms (%.0f commands per second), %d players escaped%n",
+				commandCount, elapsedNanos / 1e6, commandCount / (elapsedNanos / 1e9), winners);
+		/* Every player still in the dungeon should be on exactly one 'P' tile */
+		int playerTiles = dungeon.countPlayerTiles();
+		System.out.println(playerTiles == playersLeft ? "Check passed: " + playerTiles + " players on the map"
+				: "Check FAILED: " + playerTiles + " 'P' tiles for " + playersLeft + " players");
+	}
+
+	/**
+	 * Creates a square map of the given size with walls around the edge, scattered walls and gold, and a few exits
+	 */
+	private static Terrain randomTerrain(int size, Random random) {
+		char[][] tiles = new char[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				int roll = random.nextInt(100);
+				boolean edge = i == 0 || j == 0 || i == size - 1 || j == size - 1;
+				tiles[i][j] = edge || roll < 20 ? '#' : roll < 22 ? 'G' : roll == 22 && random.nextInt(100) == 0 ? 'E' : '.';
+			}
+		}
+		return new Terrain("generated", "Shared Dungeon", 3, TileGrid.of(tiles));
+	}
+
+	private boolean isOnMap(int rowPos, int columnPos) {
+		TileGrid tiles = terrain.getTiles();
+		return GameRules.isOnMap(rowPos, columnPos, tiles.getRowCount(), tiles.getColumnCount());
+	}
+
+	private int regionOf(int rowPos, int columnPos) {
+		return (rowPos / regionSize) * regionColumns + columnPos / regionSize;
+	}
+
+	/**
+	 * Reads a tile. The caller must hold the region's lock.
+	 */
+	private char readTile(int region, int rowPos, int columnPos) {
+		char[] tiles = regionTiles[region];
+		if (tiles == null) {
+			return terrain.getTiles().get(rowPos, columnPos);
+		}
+		return tiles[(rowPos % regionSize) * regionSize + columnPos % regionSize];
+	}
+
+	/**
+	 * Writes a tile, copying the region's tiles from the terrain first if this is its first change.
+	 * The caller must hold the region's lock.
+	 */
+	private void writeTile(int region, int rowPos, int columnPos, char tile) {
+		char[] tiles = regionTiles[region];
+		if (tiles == null) {
+			tiles = new char[regionSize * regionSize];
+			TileGrid terrainTiles = terrain.getTiles();
+			int firstRow = (region / regionColumns) * regionSize;
+			int firstColumn = (region % regionColumns) * regionSize;
+			for (int i = 0; i < regionSize; i++) {
+				for (int j = 0; j < regionSize; j++) {
+					if (isOnMap(firstRow + i, firstColumn + j)) {
+						tiles[i * regionSize + j] = terrainTiles.get(firstRow + i, firstColumn + j);
+					}
+				}
+			}
+			regionTiles[region] = tiles;
+		}
+		tiles[(rowPos % regionSize) * regionSize + columnPos % regionSize] = tile;
+	}
+}
@@ -0,0 +1,211 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * The contents of a map file as loaded from disk: its name, the gold required to win and its tiles.
+ * A Terrain never changes once it has been loaded, so one Terrain can be shared by every game
+ * played on the same map (see TerrainCache). Each game then keeps only the tiles it changes.
+ */
+public final class Terrain {
+
+	/* Where the terrain was loaded from */
+	private final String source;
+	/* Map name */
+	private final String mapName;
+	/* Gold required for the human player to win */
+	private final int goldRequired;
+	/* The tiles of the map, before any players are added */
+	private final TileGrid tiles;
+	/* Zobrist hash of the tiles, so each game does not need to work it out again */
+	private final long tileHash;
+	/* The number of gold tiles and exits on the map, before any players are added */
+	private final int goldCount;
+	private final int exitCount;
+	/* What can be seen from each tile, only created if a game asks for it */
+	private volatile FieldOfView fieldOfView;
+
+
+	/**
+	 * Constructor for Terrain
+	 * @param source : where the terrain was loaded from
+	 * @param mapName : the name of the map
+	 * @param goldRequired : gold required to win
+	 * @param tiles : the tiles of the map
+	 */
+	public Terrain(String source, String mapName, int goldRequired, TileGrid tiles) {
+		this(source, mapName, goldRequired, tiles, toBytes(tiles));
+	}
+
+	/**
+	 * Constructor for Terrain, when the tiles are already at hand one byte each, row by row
+	 */
+	private Terrain(String source, String mapName, int goldRequired, TileGrid tiles, byte[] tileBytes) {
+		this.source = source;
+		this.mapName = mapName;
+		this.goldRequired = goldRequired;
+		this.tiles = tiles;
+		tileHash = ZobristHash.of(tiles);
+		goldCount = TileScanner.count(tileBytes, 0, tileBytes.length, 'G');
+		exitCount = TileScanner.count(tileBytes, 0, tileBytes.length, 'E');
+	}
+
+	/**
+	 * @return : where the terrain was loaded from
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return : The name of the map.
+	 */
+	public String getMapName() {
+		return mapName;
+	}
+
+	/**
+	 * @return : Gold required to exit the map
+	 */
+	public int getGoldRequired() {
+		return goldRequired;
+	}
+
+	/**
+	 * @return : The tiles of the map
+	 */
+	public TileGrid getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * @return : The Zobrist hash of the tiles (see ZobristHash)
+	 */
+	public long getTileHash() {
+		return tileHash;
+	}
+
+	/**
+	 * @return : The number of gold tiles on the map, before any is picked up
+	 */
+	public int getGoldCount() {
+		return goldCount;
+	}
+
+	/**
+	 * @return : The number of exits on the map
+	 */
+	public int getExitCount() {
+		return exitCount;
+	}
+
+	/**
+	 * @return : false if there is not enough gold on the map, or no exit, so the map can never be won
+	 */
+	public boolean isWinnable() {
+		return goldCount >= goldRequired && exitCount > 0;
+	}
+
+	/**
+	 * @return : the field of view over this terrain's walls, shared by every game using the terrain
+	 */
+	public FieldOfView getFieldOfView() {
+		FieldOfView result = fieldOfView;
+		if (result == null) {
+			synchronized (this) {
+				result = fieldOfView;
+				if (result == null) {
+					result = new FieldOfView(tiles);
+					fieldOfView = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a map file. The first two lines of the file give the name of the map and the amount of
+	 * gold needed to win (in either order), and every line after that is a row of the map.
+	 * Tiles are single ISO-8859-1 characters, anything else is read as '?'.
+	 * @param filePath : the path of the map file
+	 * @return : the terrain held in the file
+	 * @throws java.io.FileNotFoundException if there is no such file
+	 * @throws MapFormatException if the file does not hold a usable map
+	 * @throws IOException if the file could not be read
+	 */
+	public static Terrain read(String filePath) throws IOException {
+		try (BufferedReader fileReader = new BufferedReader(new FileReader(filePath))) {
+			MapHeader header = MapHeader.read(fileReader);
+
+			/* Every line left is a row of the map. The number of columns is taken from the first row,
+			   and whitespace is ignored when filling in the tiles */
+			ArrayList<String> rows = new ArrayList<>();
+			String nextLine;
+			while ((nextLine = fileReader.readLine()) != null) {
+				if (!nextLine.trim().isEmpty()) {
+					rows.add(nextLine);
+				}
+			}
+			if (rows.isEmpty()) {
+				throw new MapFormatException("Map has no rows", false);
+			}
+			int rowCount = rows.size();
+			int columnCount = rows.get(0).length();
+
+			/* The tiles are filled in one after another, running on from one row into the next */
+			byte[] tileBytes = new byte[rowCount * columnCount];
+			int tilesFilled = 0;
+			for (int i = 0; i < rowCount && tilesFilled < tileBytes.length; i++) {
+				byte[] row = rows.get(i).getBytes(StandardCharsets.ISO_8859_1);
+				if (!TileScanner.containsWhitespace(row, 0, row.length)) {
+					/* Most rows have no whitespace at all, and can be copied as they are */
+					int length = Math.min(row.length, tileBytes.length - tilesFilled);
+					System.arraycopy(row, 0, tileBytes, tilesFilled, length);
+					tilesFilled += length;
+				}else {
+					for (int j = 0; j < row.length && tilesFilled < tileBytes.length; j++) {
+						if (!isWhitespace(row[j])) {
+							tileBytes[tilesFilled] = row[j];
+							tilesFilled++;
+						}
+					}
+				}
+			}
+			if (tilesFilled < tileBytes.length) {
+				throw new MapFormatException("Map rows are not all the same length", false);
+			}
+
+			char[][] map = new char[rowCount][columnCount];
+			for (int i = 0; i < rowCount; i++) {
+				for (int j = 0; j < columnCount; j++) {
+					map[i][j] = (char) (tileBytes[i * columnCount + j] & 0xFF);
+				}
+			}
+			return new Terrain(filePath, header.getMapName(), header.getGoldRequired(), TileGrid.of(map), tileBytes);
+		}
+	}
+
+	/**
+	 * @return : true for the same characters as \s in a regular expression
+	 */
+	private static boolean isWhitespace(byte tile) {
+		return tile == ' ' || tile == '\t' || tile == '\n' || tile == 0x0B || tile == '\f' || tile == '\r';
+	}
+
+	/**
+	 * @return : the tiles one byte each, row by row
+	 */
+	private static byte[] toBytes(TileGrid tiles) {
+		byte[] tileBytes = new byte[tiles.getRowCount() * tiles.getColumnCount()];
+		int index = 0;
+		for (char[] row : tiles.toArray()) {
+			for (char tile : row) {
+				tileBytes[index] = (byte) tile;
+				index++;
+			}
+		}
+		return tileBytes;
+	}
+}
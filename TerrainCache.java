@@ -0,0 +1,78 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds every map file loaded by the program, so each file is only read once
+ * however many games are played on it. The cached terrains are never changed,
+ * so every game shares them and only keeps the tiles it changes itself (see Map).
+ */
+public final class TerrainCache {
+
+	/* Loaded terrains, keyed by the absolute path of their file */
+	private static final ConcurrentHashMap<String, Terrain> terrains = new ConcurrentHashMap<>();
+
+
+	private TerrainCache() {
+	}
+
+	/**
+	 * Gives back the terrain held in a map file, reading the file if it has not been read before.
+	 * Files that could not be read are not cached, so they are tried again next time.
+	 * @param filePath : the path of the map file
+	 * @return : the terrain held in the file
+	 * @throws IOException if the file could not be read, see Terrain.read()
+	 */
+	public static Terrain load(String filePath) throws IOException {
+		String key = key(filePath);
+		Terrain terrain = terrains.get(key);
+		if (terrain == null) {
+			terrain = Terrain.read(filePath);
+			/* If another game read the same file at the same time, keep the terrain that got in first */
+			Terrain existing = terrains.putIfAbsent(key, terrain);
+			if (existing != null) {
+				terrain = existing;
+			}
+		}
+		return terrain;
+	}
+
+	/**
+	 * @param filePath : the path of the map file
+	 * @return : the cached terrain for the file, or null if it has not been loaded
+	 */
+	public static Terrain get(String filePath) {
+		return terrains.get(key(filePath));
+	}
+
+	/**
+	 * Replaces the cached terrain for a file, so games started afterwards use the new terrain
+	 * @param filePath : the path of the map file
+	 * @param terrain : the new terrain
+	 */
+	public static void put(String filePath, Terrain terrain) {
+		terrains.put(key(filePath), terrain);
+	}
+
+	/**
+	 * Forgets the cached terrain for a file, so it is read again next time
+	 * @param filePath : the path of the map file
+	 */
+	public static void evict(String filePath) {
+		terrains.remove(key(filePath));
+	}
+
+	/**
+	 * @return : the number of terrains currently cached
+	 */
+	public static int size() {
+		return terrains.size();
+	}
+
+	/**
+	 * Two paths naming the same file share one cache entry
+	 */
+	private static String key(String filePath) {
+		return Paths.get(filePath).toAbsolutePath().normalize().toString();
+	}
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+/**
+ * The tiles that differ between two versions of the same map file,
+ * worked out by MapReloader when a map file is changed on disk.
+ */
+public final class TerrainChange {
+
+	/* The terrain before and after the file changed. Both have the same number of rows and columns */
+	private final Terrain oldTerrain;
+	private final Terrain newTerrain;
+	/* The positions of the changed tiles, each stored as row * columnCount + column */
+	private final int[] changedTiles;
+
+
+	private TerrainChange(Terrain oldTerrain, Terrain newTerrain, int[] changedTiles) {
+		this.oldTerrain = oldTerrain;
+		this.newTerrain = newTerrain;
+		this.changedTiles = changedTiles;
+	}
+
+	/**
+	 * Compares two terrains tile by tile
+	 * @param oldTerrain : the terrain games are currently using
+	 * @param newTerrain : the terrain just read from the file
+	 * @return : the change between them, or null if they do not have the same number of rows and columns,
+	 *           as then the new terrain cannot be laid over games that are already running
+	 */
+	public static TerrainChange between(Terrain oldTerrain, Terrain newTerrain) {
+		TileGrid oldTiles = oldTerrain.getTiles();
+		TileGrid newTiles = newTerrain.getTiles();
+		if (oldTiles.getRowCount() != newTiles.getRowCount() || oldTiles.getColumnCount() != newTiles.getColumnCount()) {
+			return null;
+		}
+
+		int columnCount = oldTiles.getColumnCount();
+		int[] changed = new int[16];
+		int changedCount = 0;
+		for (int i = 0; i < oldTiles.getRowCount(); i++) {
+			for (int j = 0; j < columnCount; j++) {
+				if (oldTiles.get(i, j) != newTiles.get(i, j)) {
+					if (changedCount == changed.length) {
+						changed = Arrays.copyOf(changed, changedCount * 2);
+					}
+					changed[changedCount] = i * columnCount + j;
+					changedCount++;
+				}
+			}
+		}
+		return new TerrainChange(oldTerrain, newTerrain, Arrays.copyOf(changed, changedCount));
+	}
+
+	/**
+	 * @return : the terrain before the file changed
+	 */
+	public Terrain getOldTerrain() {
+		return oldTerrain;
+	}
+
+	/**
+	 * @return : the terrain after the file changed
+	 */
+	public Terrain getNewTerrain() {
+		return newTerrain;
+	}
+
+	/**
+	 * @return : the number of tiles that changed
+	 */
+	public int getChangedTileCount() {
+		return changedTiles.length;
+	}
+
+	/**
+	 * @param index : which changed tile, from 0 to getChangedTileCount() - 1
+	 * @return : the row of the changed tile
+	 */
+	public int getChangedRow(int index) {
+		return changedTiles[index] / oldTerrain.getTiles().getColumnCount();
+	}
+
+	/**
+	 * @param index : which changed tile, from 0 to getChangedTileCount() - 1
+	 * @return : the column of the changed tile
+	 */
+	public int getChangedColumn(int index) {
+		return changedTiles[index] % oldTerrain.getTiles().getColumnCount();
+	}
+}
@@ -0,0 +1,284 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Advances every player in a game by one command per tick.
+ * Each tick is split into two phases: first the command of every player is gathered
+ * (the bots work out their commands in parallel when there are enough of them),
+ * then the commands are performed one player at a time in a fixed order,
+ * so the result is the same as if the tick had been run on a single thread.
+ */
+public class TickScheduler {
+
+	/* With fewer bots than this, handing their decisions to other threads costs more than it saves */
+	private static final int PARALLEL_THRESHOLD = 8;
+
+	/* The game being advanced */
+	private GameLogic logic;
+	/* Threads used to work out the bots' commands, only started once there are enough bots */
+	private ExecutorService botThinkers;
+	private int threadCount;
+	/* How long each bot took to decide on its command in the last tick, in nanoseconds */
+	private long[] botDecisionNanos;
+	/* How many ticks have been run */
+	private int tickCount;
+	/* Whether a bot and the human ended up on the same tile during the last tick */
+	private boolean humanCaught;
+	/* Whether the bots work out their commands while waiting for the human to type */
+	private boolean speculating;
+
+
+	/**
+	 * Constructor for TickScheduler, using one thread per available core
+	 * @param logic : the game to advance
+	 */
+	public TickScheduler(GameLogic logic) {
+		this(logic, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for TickScheduler
+	 * @param logic : the game to advance
+	 * @param threadCount : the number of threads used to work out the bots' commands
+	 */
+	public TickScheduler(GameLogic logic, int threadCount) {
+		this.logic = logic;
+		this.threadCount = Math.max(1, threadCount);
+		tickCount = 0;
+		humanCaught = false;
+		botDecisionNanos = new long[0];
+	}
+
+	/**
+	 * @return : the number of ticks that have been run
+	 */
+	public int getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * @return : true if a bot caught the human during the last tick
+	 */
+	public boolean wasHumanCaught() {
+		return humanCaught;
+	}
+
+	/**
+	 * @param botIndex : the position of the bot in GameLogic.getBotPlayers()
+	 * @return : how long the bot took to decide on its command in the last tick, in nanoseconds
+	 */
+	public long getBotDecisionNanos(int botIndex) {
+		return botDecisionNanos[botIndex];
+	}
+
+	/**
+	 * Lets the bots work out their commands on background threads while generateCommand() waits for
+	 * the human to type, so the bots' thinking time is hidden behind the human's. Each bot decides on a copy
+	 * of itself (see BotPlayer.copyForSpeculation()). A bot only decides from what it saw with its last LOOK,
+	 * which the human's command cannot change, so the decision is kept unless the human's command ends
+	 * the game, in which case the copies are thrown away and the bots are left as they were.
+	 * @param speculating : true to work out the bots' commands while waiting for the human
+	 */
+	public void setSpeculating(boolean speculating) {
+		this.speculating = speculating;
+	}
+
+	/**
+	 * Runs a single tick: gathers a command from the human and every bot, then performs them in order.
+	 * The human acts first, followed by the bots in the order they were added to the game.
+	 * Once the game stops running, the remaining commands of the tick are dropped.
+	 * @return : the result of the human's command, or null if the human had no command,
+	 *           which only happens when the human's input is read in the background and nothing has been typed
+	 */
+	public String tick() {
+		return tick(true);
+	}
+
+	/**
+	 * Runs a single tick, as tick() does
+	 * @param botsAct : false to leave the bots where they are this tick
+	 * @return : the result of the human's command, or null if the human had no command,
+	 *           which only happens when the human's input is read in the background and nothing has been typed
+	 */
+	public String tick(boolean botsAct) {
+		HumanPlayer humanPlayer = logic.getHumanPlayer();
+		List<BotPlayer> botPlayers = logic.getBotPlayers();
+		tickCount++;
+		humanCaught = false;
+
+		/* Gather the commands. The bots only use what they have already seen to decide on
+		   a command, so this does not depend on the order anyone acts in this tick */
+		List<Future<BotPlayer>> speculation = null;
+		if (botsAct && speculating) {
+			speculation = speculateBotCommands(botPlayers);
+		}
+		humanPlayer.generateCommand();
+		List<BotPlayer> decidedCopies = null;
+		if (speculation != null) {
+			decidedCopies = awaitSpeculation(speculation);
+		}
+		if (botsAct && decidedCopies == null) {
+			generateBotCommands(botPlayers);
+		}
+
+		/* When the console's input has ended no command will ever come, so the human quits rather than
+		   leaving the bots to play on alone. This is checked after the command was taken, so every line typed is used first */
+		if (humanPlayer.getCommand() == null && humanPlayer.hasInputEnded()) {
+			humanPlayer.setCommand(humanPlayer.getAvaliableCommands()[8]);
+		}
+
+		/* Perform the commands. A human with nothing typed in real time does nothing this tick */
+		String humanResult = null;
+		if (humanPlayer.getCommand() != null) {
+			humanResult = logic.performAction(humanPlayer, humanPlayer.getNextAction());
+			if (!logic.gameRunning()) {
+				return humanResult;
+			}
+			if (logic.isGameLost()) {
+				humanCaught = true;
+				return humanResult;
+			}
+		}
+		if (!botsAct) {
+			return humanResult;
+		}
+		if (decidedCopies != null) {
+			for (int i = 0; i < botPlayers.size(); i++) {
+				botPlayers.get(i).adoptDecision(decidedCopies.get(i));
+			}
+		}
+
+		String lookCommand = humanPlayer.getAvaliableCommands()[7];
+		for (BotPlayer bot : botPlayers) {
+			String result = logic.performAction(bot, bot.getNextAction());
+			/* If the bot chose the look command it needs to store what it saw,
+			   so it can be used to find the best direction to move in */
+			if (bot.getCommand().equals(lookCommand)) {
+				bot.setMapAsLastSeen(result);
+			}
+			if (logic.isGameLost()) {
+				humanCaught = true;
+				break;
+			}
+			if (!logic.gameRunning()) {
+				break;
+			}
+		}
+		return humanResult;
+	}
+
+	/**
+	 * Stops the threads used to work out the bots' commands
+	 */
+	public void shutdown() {
+		if (botThinkers != null) {
+			botThinkers.shutdown();
+		}
+	}
+
+	/**
+	 * Calls generateCommand() on every bot, in parallel if there are enough bots.
+	 * @param botPlayers : the bots to generate commands for
+	 */
+	private void generateBotCommands(List<BotPlayer> botPlayers) {
+		if (botDecisionNanos.length != botPlayers.size()) {
+			botDecisionNanos = new long[botPlayers.size()];
+		}
+		if (botPlayers.size() < PARALLEL_THRESHOLD) {
+			for (int i = 0; i < botPlayers.size(); i++) {
+				generateBotCommand(botPlayers.get(i), i);
+			}
+			return;
+		}
+
+		List<Callable<Void>> decisions = new ArrayList<>();
+		for (int i = 0; i < botPlayers.size(); i++) {
+			BotPlayer bot = botPlayers.get(i);
+			int botIndex = i;
+			decisions.add(() -> {
+				generateBotCommand(bot, botIndex);
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> decision : getBotThinkers().invokeAll(decisions)) {
+				decision.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Starts generating a command for a copy of every bot in the background, one task per copy,
+	 * so the copies are decided in parallel. The tasks are all submitted from this thread:
+	 * a task that waited on other tasks would never finish when there is only one thread.
+	 * @param botPlayers : the bots to generate commands for
+	 * @return : one copy per bot, in the same order as the bots, each available once it has its command
+	 */
+	private List<Future<BotPlayer>> speculateBotCommands(List<BotPlayer> botPlayers) {
+		if (botDecisionNanos.length != botPlayers.size()) {
+			botDecisionNanos = new long[botPlayers.size()];
+		}
+		List<Future<BotPlayer>> decisions = new ArrayList<>();
+		for (int i = 0; i < botPlayers.size(); i++) {
+			BotPlayer copy = botPlayers.get(i).copyForSpeculation();
+			int botIndex = i;
+			decisions.add(getBotThinkers().submit(() -> {
+				generateBotCommand(copy, botIndex);
+				return copy;
+			}));
+		}
+		return decisions;
+	}
+
+	/**
+	 * Waits for every bot's command started by speculateBotCommands()
+	 * @return : the copies of the bots with their commands, or null if interrupted
+	 */
+	private List<BotPlayer> awaitSpeculation(List<Future<BotPlayer>> speculation) {
+		List<BotPlayer> copies = new ArrayList<>();
+		try {
+			for (Future<BotPlayer> decision : speculation) {
+				copies.add(decision.get());
+			}
+			return copies;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * @return : the threads used to work out the bots' commands, starting them if needed
+	 */
+	private ExecutorService getBotThinkers() {
+		if (botThinkers == null) {
+			botThinkers = Executors.newFixedThreadPool(threadCount, runnable -> {
+				/* Daemon threads, so a game that is never shut down properly does not stop the program from exiting */
+				Thread thread = new Thread(runnable, "bot-thinker");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return botThinkers;
+	}
+
+	/**
+	 * Calls generateCommand() on a bot, timing how long it takes
+	 */
+	private void generateBotCommand(BotPlayer bot, int botIndex) {
+		long start = System.nanoTime();
+		bot.generateCommand();
+		botDecisionNanos[botIndex] = System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * An immutable grid of map tiles, split into 16x16 chunks.
+ * Changing a tile gives back a new grid which shares every chunk with the old one,
+ * apart from the chunk holding the changed tile (and the small arrays pointing to it),
+ * so keeping hold of an old grid is free and copying one is never needed.
+ */
+public final class TileGrid {
+
+	/* Each chunk holds CHUNK_SIZE x CHUNK_SIZE tiles, stored row by row */
+	private static final int CHUNK_BITS = 4;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/* Amount of rows and columns of tiles in the grid */
+	private final int rowCount;
+	private final int columnCount;
+	/* chunks[i][j] holds the tiles from row i*CHUNK_SIZE and column j*CHUNK_SIZE onwards */
+	private final char[][][] chunks;
+
+
+	private TileGrid(int rowCount, int columnCount, char[][][] chunks) {
+		this.rowCount = rowCount;
+		this.columnCount = columnCount;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * Creates a grid holding the same tiles as a 2D array
+	 * @param tiles : the tiles, stored as map[row][column]. Every row should be the same length.
+	 * @return : a grid with a copy of the tiles
+	 */
+	public static TileGrid of(char[][] tiles) {
+		int rowCount = tiles.length;
+		int columnCount = rowCount == 0 ? 0 : tiles[0].length;
+		char[][][] chunks = new char[chunkCount(rowCount)][chunkCount(columnCount)][];
+		for (int i = 0; i < chunks.length; i++) {
+			for (int j = 0; j < chunks[i].length; j++) {
+				char[] chunk = new char[CHUNK_SIZE * CHUNK_SIZE];
+				for (int row = i * CHUNK_SIZE; row < Math.min(rowCount, (i + 1) * CHUNK_SIZE); row++) {
+					int columnStart = j * CHUNK_SIZE;
+					int length = Math.min(CHUNK_SIZE, columnCount - columnStart);
+					System.arraycopy(tiles[row], columnStart, chunk, (row & CHUNK_MASK) << CHUNK_BITS, length);
+				}
+				chunks[i][j] = chunk;
+			}
+		}
+		return new TileGrid(rowCount, columnCount, chunks);
+	}
+
+	/**
+	 * @return : The number of rows in the grid.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return : The number of columns in the grid.
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * @param rowPos, columnPos : The row/column number of the tile
+	 * @return : the tile at that position
+	 * @throws ArrayIndexOutOfBoundsException if the position is outside of the grid,
+	 *         in the same way reading outside of a 2D array would
+	 */
+	public char get(int rowPos, int columnPos) {
+		checkInside(rowPos, columnPos);
+		return chunks[rowPos >> CHUNK_BITS][columnPos >> CHUNK_BITS][chunkOffset(rowPos, columnPos)];
+	}
+
+	/**
+	 * Gives back a grid with one tile changed. This grid is left as it is.
+	 * @param rowPos, columnPos : The row/column number of the tile to change
+	 * @param tile : The new tile
+	 * @return : the changed grid, or this grid if the tile was already there
+	 */
+	public TileGrid with(int rowPos, int columnPos, char tile) {
+		if (get(rowPos, columnPos) == tile) {
+			return this;
+		}
+		int chunkRow = rowPos >> CHUNK_BITS;
+		int chunkColumn = columnPos >> CHUNK_BITS;
+
+		/* Copy only the path down to the changed tile, everything else is shared */
+		char[][][] newChunks = chunks.clone();
+		newChunks[chunkRow] = chunks[chunkRow].clone();
+		char[] newChunk = chunks[chunkRow][chunkColumn].clone();
+		newChunk[chunkOffset(rowPos, columnPos)] = tile;
+		newChunks[chunkRow][chunkColumn] = newChunk;
+		return new TileGrid(rowCount, columnCount, newChunks);
+	}
+
+	/**
+	 * @return : a copy of the tiles as a 2D array, stored as map[row][column]
+	 */
+	public char[][] toArray() {
+		char[][] tiles = new char[rowCount][columnCount];
+		for (int row = 0; row < rowCount; row++) {
+			char[][] chunkRow = chunks[row >> CHUNK_BITS];
+			for (int j = 0; j < chunkRow.length; j++) {
+				int columnStart = j * CHUNK_SIZE;
+				int length = Math.min(CHUNK_SIZE, columnCount - columnStart);
+				System.arraycopy(chunkRow[j], (row & CHUNK_MASK) << CHUNK_BITS, tiles[row], columnStart, length);
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * Throws an ArrayIndexOutOfBoundsException if the position is not on the grid
+	 */
+	private void checkInside(int rowPos, int columnPos) {
+		if (rowPos < 0 || rowPos >= rowCount || columnPos < 0 || columnPos >= columnCount) {
+			throw new ArrayIndexOutOfBoundsException("Position " + rowPos + ", " + columnPos + " is outside of the map");
+		}
+	}
+
+	private static int chunkOffset(int rowPos, int columnPos) {
+		return ((rowPos & CHUNK_MASK) << CHUNK_BITS) | (columnPos & CHUNK_MASK);
+	}
+
+	private static int chunkCount(int tileCount) {
+		return (tileCount + CHUNK_SIZE - 1) >> CHUNK_BITS;
+	}
+}
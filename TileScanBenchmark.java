@@ -0,0 +1,122 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times TileScanner against checking one tile at a time, and against how Terrain.read() used to fill in its tiles,
+ * on a large randomly generated map.
+ * Run with: java TileScanBenchmark [rows] [columns]
+ * Each measurement is repeated, and the fastest run is reported, after running it untimed for a while so the JIT has compiled it.
+ */
+public class TileScanBenchmark {
+
+	/* How long to run each measurement untimed, and how many timed runs follow */
+	private static final long WARMUP_NANOS = 500_000_000L;
+	private static final int TIMED_RUNS = 20;
+
+	/* Results are added up here so the JIT cannot skip the work being timed */
+	private static long sink;
+
+
+	/**
+	 * Something to time, which gives back a result to keep
+	 */
+	private interface Work {
+		long run();
+	}
+
+	public static void main(String[] args) {
+		int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int columnCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		Random random = new Random(42);
+
+		/* Mostly floor and walls, with a little gold and a few exits, and the human near the end */
+		byte[] tiles = new byte[rowCount * columnCount];
+		for (int i = 0; i < tiles.length; i++) {
+			int roll = random.nextInt(100);
+			tiles[i] = (byte) (roll < 30 ? '#' : roll < 32 ? 'G' : roll == 32 && random.nextInt(100) == 0 ? 'E' : '.');
+		}
+		tiles[tiles.length - columnCount / 2] = 'P';
+		System.out.println("Map of " + rowCount + " x " + columnCount + " tiles, fastest of " + TIMED_RUNS + " runs:");
+
+		report("count 'G'", "one at a time", time(() -> TileScanner.countScalar(tiles, 0, tiles.length, 'G')),
+				time(() -> TileScanner.count(tiles, 0, tiles.length, 'G')));
+		report("indexOf 'P'", "one at a time", time(() -> TileScanner.indexOfScalar(tiles, 0, tiles.length, 'P')),
+				time(() -> TileScanner.indexOf(tiles, 0, tiles.length, 'P')));
+		report("whitespace check", "one at a time", time(() -> containsWhitespaceScalar(tiles)),
+				time(() -> TileScanner.containsWhitespace(tiles, 0, tiles.length) ? 1 : 0));
+
+		/* Filling in the tiles from the rows of a map file, as Terrain.read() does, against how it used to:
+		   joining the rows and taking the whitespace out with a regular expression */
+		List<String> rows = new ArrayList<>();
+		for (int i = 0; i < rowCount; i++) {
+			rows.add(new String(tiles, i * columnCount, columnCount, StandardCharsets.ISO_8859_1));
+		}
+		report("fill tiles from rows", "regular expression", time(() -> String.join("", rows).replaceAll("\\s+", "").length()),
+				time(() -> fillTiles(rows, tiles.length)));
+
+		/* The bot reading what it sees with LOOK */
+		BotPlayer bot = new BotPlayer(42);
+		String window = "#..G.\n.#...\n..B..\n...P.\n#####";
+		long lookNanos = time(() -> {
+			for (int i = 0; i < 10000; i++) {
+				bot.setMapAsLastSeen(window);
+			}
+			return bot.getCommand() == null ? 0 : 1;
+		});
+		System.out.printf("%-22s %10.1f ns per LOOK%n", "bot reads LOOK", lookNanos / 10000.0);
+
+		if (sink == 42) {
+			System.out.println();
+		}
+	}
+
+	/**
+	 * @return : the fastest time taken by the work, in nanoseconds
+	 */
+	private static long time(Work work) {
+		long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+		while (System.nanoTime() < warmupEnd) {
+			sink += work.run();
+		}
+		long fastest = Long.MAX_VALUE;
+		for (int i = 0; i < TIMED_RUNS; i++) {
+			long start = System.nanoTime();
+			sink += work.run();
+			fastest = Math.min(fastest, System.nanoTime() - start);
+		}
+		return fastest;
+	}
+
+	private static void report(String name, String baselineName, long baselineNanos, long scannerNanos) {
+		System.out.printf("%-22s %-20s %8.3f ms, TileScanner: %8.3f ms, %5.2fx faster%n",
+				name, baselineName + ":", baselineNanos / 1e6, scannerNanos / 1e6, (double) baselineNanos / scannerNanos);
+	}
+
+	private static long containsWhitespaceScalar(byte[] tiles) {
+		for (byte tile : tiles) {
+			if ((tile & 0xFF) <= ' ') {
+				return 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Fills in tiles from rows with no whitespace, in the same way as Terrain.read()
+	 */
+	private static long fillTiles(List<String> rows, int tileCount) {
+		byte[] tileBytes = new byte[tileCount];
+		int tilesFilled = 0;
+		for (String rowString : rows) {
+			byte[] row = rowString.getBytes(StandardCharsets.ISO_8859_1);
+			if (!TileScanner.containsWhitespace(row, 0, row.length)) {
+				int length = Math.min(row.length, tileBytes.length - tilesFilled);
+				System.arraycopy(row, 0, tileBytes, tilesFilled, length);
+				tilesFilled += length;
+			}
+		}
+		return tilesFilled;
+	}
+}
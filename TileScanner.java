@@ -0,0 +1,130 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Counts and finds tiles in rows of tiles stored one byte per tile, eight tiles at a time.
+ * Each group of eight tiles is read as one long, and all eight are compared against the tile
+ * being looked for with a handful of bit operations, rather than one comparison per tile.
+ * Whatever is left at the end of a row, fewer than eight tiles, is checked one tile at a time.
+ * Tiles are single characters from ISO-8859-1, which every map tile ('#', '.', 'G', 'E', 'P', 'B') is.
+ */
+public final class TileScanner {
+
+	/* Reads eight bytes from a byte array as one long, the first byte going in the lowest bits */
+	private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	/* The number of tiles compared at once */
+	private static final int TILES_PER_WORD = Long.BYTES;
+
+	/* The lowest bit, highest bit, and all but the highest bit of each byte */
+	private static final long LOW_BITS = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long LOWER_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+
+	private TileScanner() {
+	}
+
+	/**
+	 * @param tiles : the tiles, one byte each
+	 * @param from, to : the range to count in, from inclusive, to exclusive
+	 * @param tile : the tile to count
+	 * @return : the number of times the tile appears in the range
+	 */
+	public static int count(byte[] tiles, int from, int to, char tile) {
+		long pattern = repeat(tile);
+		int count = 0;
+		int i = from;
+		for (; i + TILES_PER_WORD <= to; i += TILES_PER_WORD) {
+			count += Long.bitCount(zeroBytes((long) WORDS.get(tiles, i) ^ pattern));
+		}
+		return count + countScalar(tiles, i, to, tile);
+	}
+
+	/**
+	 * @param tiles : the tiles, one byte each
+	 * @param from, to : the range to search, from inclusive, to exclusive
+	 * @param tile : the tile to find
+	 * @return : the index of the first time the tile appears in the range, or -1 if it does not
+	 */
+	public static int indexOf(byte[] tiles, int from, int to, char tile) {
+		long pattern = repeat(tile);
+		int i = from;
+		for (; i + TILES_PER_WORD <= to; i += TILES_PER_WORD) {
+			long found = zeroBytes((long) WORDS.get(tiles, i) ^ pattern);
+			if (found != 0) {
+				/* The first byte is in the lowest bits, so the lowest bit set is the first match */
+				return i + (Long.numberOfTrailingZeros(found) >>> 3);
+			}
+		}
+		return indexOfScalar(tiles, i, to, tile);
+	}
+
+	/**
+	 * @param tiles : the tiles, one byte each
+	 * @param from, to : the range to check, from inclusive, to exclusive
+	 * @return : true if any byte in the range is a space or a control character, which covers every kind of
+	 *           whitespace allowed in a map file. Ranges without any can be used as they are.
+	 */
+	public static boolean containsWhitespace(byte[] tiles, int from, int to) {
+		int i = from;
+		for (; i + TILES_PER_WORD <= to; i += TILES_PER_WORD) {
+			long word = (long) WORDS.get(tiles, i);
+			/* Adding 0x5F to the lower seven bits of a byte carries into its highest bit if they are 0x21 or more.
+			   A byte is at most ' ' if that did not happen and its own highest bit is not set */
+			long atLeastExclamationMark = (word & LOWER_SEVEN_BITS) + 0x5F * LOW_BITS;
+			if ((~(atLeastExclamationMark | word) & HIGH_BITS) != 0) {
+				return true;
+			}
+		}
+		for (; i < to; i++) {
+			if ((tiles[i] & 0xFF) <= ' ') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts a tile one byte at a time, used for what is left after the groups of eight
+	 * and by TileScanBenchmark to compare against
+	 */
+	static int countScalar(byte[] tiles, int from, int to, char tile) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			if (tiles[i] == (byte) tile) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Finds a tile one byte at a time, used for what is left after the groups of eight
+	 * and by TileScanBenchmark to compare against
+	 */
+	static int indexOfScalar(byte[] tiles, int from, int to, char tile) {
+		for (int i = from; i < to; i++) {
+			if (tiles[i] == (byte) tile) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return : a long with every byte set to the tile
+	 */
+	private static long repeat(char tile) {
+		return (tile & 0xFF) * LOW_BITS;
+	}
+
+	/**
+	 * @return : a long with the highest bit of a byte set exactly where that byte of the word is zero, and no other bits.
+	 *           Adding 0x7F to the lower seven bits of a byte only leaves its highest bit clear if they were all zero,
+	 *           and this never carries into the next byte.
+	 */
+	private static long zeroBytes(long word) {
+		return ~(((word & LOWER_SEVEN_BITS) + LOWER_SEVEN_BITS) | word | LOWER_SEVEN_BITS);
+	}
+}
@@ -0,0 +1,319 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays every human strategy against every bot strategy, on every map, once per seed,
+ * and writes how each pairing did to a CSV file. Matches are spread over every core.
+ * Run with: java Tournament [map files or directories] [--seeds n] [--warmup n] [--turns n] [--threads n] [--out file.csv]
+ */
+public class Tournament {
+
+	/**
+	 * Creates a player for one match
+	 */
+	public interface PlayerFactory<T extends Player> {
+		/**
+		 * @param terrain : the map the match is played on
+		 * @param seed : seed for any random choices the player makes
+		 * @return : a new player
+		 */
+		T create(Terrain terrain, long seed);
+	}
+
+	/* The strategies taking part, by name */
+	private LinkedHashMap<String, PlayerFactory<HumanPlayer>> humanEntrants;
+	private LinkedHashMap<String, PlayerFactory<BotPlayer>> botEntrants;
+	/* The maps played on */
+	private List<Terrain> maps;
+	/* How many matches each pairing plays on each map */
+	private int seedCount;
+	/* Matches that have not ended after this many ticks are counted as neither a win nor a catch */
+	private int maxTurns;
+	/* Matches played by each pairing on each map before the timed matches, so class loading and
+	   the JIT compiling the bots' code are not counted in the decision times */
+	private int warmupSeedCount;
+	/* A description of each match that threw an exception during the last run(), these are left out of the results */
+	private List<String> failedMatches;
+
+
+	/**
+	 * Constructor for Tournament
+	 * @param seedCount : how many matches each pairing plays on each map, each with a different seed
+	 * @param maxTurns : the most ticks a match can last
+	 */
+	public Tournament(int seedCount, int maxTurns) {
+		humanEntrants = new LinkedHashMap<>();
+		botEntrants = new LinkedHashMap<>();
+		maps = new ArrayList<>();
+		this.seedCount = seedCount;
+		this.maxTurns = maxTurns;
+		warmupSeedCount = 5;
+		failedMatches = new ArrayList<>();
+	}
+
+	/**
+	 * @param warmupSeedCount : how many untimed matches each pairing plays on each map before the timed ones
+	 */
+	public void setWarmupSeedCount(int warmupSeedCount) {
+		this.warmupSeedCount = Math.max(0, warmupSeedCount);
+	}
+
+	/**
+	 * @return : a description of each match that failed during the last run(), and why
+	 */
+	public List<String> getFailedMatches() {
+		return failedMatches;
+	}
+
+	/**
+	 * Adds a strategy for the human player
+	 * @param name : the name used in the results
+	 * @param factory : creates the player for each match
+	 */
+	public void addHumanEntrant(String name, PlayerFactory<HumanPlayer> factory) {
+		humanEntrants.put(name, factory);
+	}
+
+	/**
+	 * Adds a strategy for the bot
+	 * @param name : the name used in the results
+	 * @param factory : creates the bot for each match
+	 */
+	public void addBotEntrant(String name, PlayerFactory<BotPlayer> factory) {
+		botEntrants.put(name, factory);
+	}
+
+	/**
+	 * Adds a map to play on
+	 * @param terrain : the map
+	 */
+	public void addMap(Terrain terrain) {
+		maps.add(terrain);
+	}
+
+	/**
+	 * Plays every match. A match that throws an exception is left out of the results and recorded
+	 * in getFailedMatches(), so one broken map or strategy does not stop the rest of the tournament.
+	 * @param threadCount : the number of matches played at once
+	 * @return : the result of every match that finished, in a fixed order however many threads are used
+	 */
+	public List<MatchResult> run(int threadCount) {
+		failedMatches = new ArrayList<>();
+		List<Callable<MatchResult>> warmupMatches = new ArrayList<>();
+		List<Callable<MatchResult>> matches = new ArrayList<>();
+		List<String> matchNames = new ArrayList<>();
+		for (Terrain terrain : maps) {
+			for (String humanName : humanEntrants.keySet()) {
+				for (String botName : botEntrants.keySet()) {
+					/* Warm-up matches use negative seeds, so they never repeat a timed match */
+					for (int seed = -warmupSeedCount; seed < 0; seed++) {
+						long matchSeed = seed;
+						warmupMatches.add(() -> playMatch(terrain, humanName, botName, matchSeed));
+					}
+					for (int seed = 0; seed < seedCount; seed++) {
+						long matchSeed = seed;
+						matches.add(() -> playMatch(terrain, humanName, botName, matchSeed));
+						matchNames.add(humanName + " vs " + botName + " on " + terrain.getMapName() + ", seed " + seed);
+					}
+				}
+			}
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threadCount));
+		List<MatchResult> results = new ArrayList<>();
+		try {
+			/* The warm-up matches are all played before any timed match starts, and their results are thrown away.
+			   Any that fail will fail again when timed, and be recorded then */
+			pool.invokeAll(warmupMatches);
+			List<Future<MatchResult>> playedMatches = pool.invokeAll(matches);
+			for (int i = 0; i < playedMatches.size(); i++) {
+				try {
+					results.add(playedMatches.get(i).get());
+				} catch (ExecutionException e) {
+					failedMatches.add(matchNames.get(i) + ": " + e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdown();
+		}
+		return results;
+	}
+
+	/**
+	 * Plays a single match
+	 * @param terrain : the map to play on
+	 * @param humanName, botName : the strategies playing
+	 * @param seed : seeds where the players start and the choices they make
+	 * @return : how the match went
+	 */
+	public MatchResult playMatch(Terrain terrain, String humanName, String botName, long seed) {
+		HumanPlayer humanPlayer = humanEntrants.get(humanName).create(terrain, seed * 31 + 1);
+		BotPlayer botPlayer = botEntrants.get(botName).create(terrain, seed * 31 + 2);
+		GameLogic logic = new GameLogic(new Map(terrain), humanPlayer, botPlayer, new Random(seed));
+		logic.addPlayerToMap(true);
+		logic.addPlayerToMap(false);
+
+		/* Only one bot, so the scheduler never needs its own threads */
+		TickScheduler scheduler = new TickScheduler(logic, 1);
+		long[] decisionNanos = new long[maxTurns];
+		boolean humanWon = false;
+		int turns = 0;
+		while (logic.gameRunning() && turns < maxTurns) {
+			String result = scheduler.tick();
+			decisionNanos[turns] = scheduler.getBotDecisionNanos(0);
+			turns++;
+			if (result.startsWith("WIN")) {
+				humanWon = true;
+			}
+		}
+		scheduler.shutdown();
+		return new MatchResult(humanName, botName, terrain.getMapName(), humanWon, scheduler.wasHumanCaught(),
+				turns, humanPlayer.getGoldOwned(), Arrays.copyOf(decisionNanos, turns));
+	}
+
+	/**
+	 * Writes one CSV row for each pairing on each map.
+	 * The mean decision time still includes any pauses for garbage collection or the JIT that happen
+	 * after the warm-up matches, so a handful of slow decisions can pull it well above the p99.
+	 * @param results : the results of run()
+	 * @param out : where to write the CSV
+	 */
+	public static void writeCsv(List<MatchResult> results, PrintWriter out) {
+		out.println("human,bot,map,matches,human_win_rate,catch_rate,mean_turns_to_catch,mean_gold_collected,mean_decision_ns,p99_decision_ns");
+
+		/* Group the results by pairing and map, keeping the order they were played in */
+		LinkedHashMap<String, List<MatchResult>> groups = new LinkedHashMap<>();
+		for (MatchResult result : results) {
+			String key = result.getHumanEntrant() + "\u0000" + result.getBotEntrant() + "\u0000" + result.getMapName();
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(result);
+		}
+
+		for (List<MatchResult> group : groups.values()) {
+			int wins = 0;
+			int catches = 0;
+			long turnsToCatch = 0;
+			long gold = 0;
+			int decisionCount = 0;
+			for (MatchResult result : group) {
+				if (result.isHumanWon()) {
+					wins++;
+				}
+				if (result.isHumanCaught()) {
+					catches++;
+					turnsToCatch += result.getTurns();
+				}
+				gold += result.getGoldCollected();
+				decisionCount += result.getDecisionNanos().length;
+			}
+
+			long[] decisions = new long[decisionCount];
+			int index = 0;
+			long decisionTotal = 0;
+			for (MatchResult result : group) {
+				for (long nanos : result.getDecisionNanos()) {
+					decisions[index] = nanos;
+					decisionTotal += nanos;
+					index++;
+				}
+			}
+			Arrays.sort(decisions);
+			long p99 = decisionCount == 0 ? 0 : decisions[(int) Math.ceil(decisionCount * 0.99) - 1];
+
+			MatchResult first = group.get(0);
+			out.printf("%s,%s,%s,%d,%.4f,%.4f,%.2f,%.2f,%.1f,%d%n",
+					csvField(first.getHumanEntrant()), csvField(first.getBotEntrant()), csvField(first.getMapName()),
+					group.size(),
+					(double) wins / group.size(),
+					(double) catches / group.size(),
+					catches == 0 ? 0.0 : (double) turnsToCatch / catches,
+					(double) gold / group.size(),
+					decisionCount == 0 ? 0.0 : (double) decisionTotal / decisionCount,
+					p99);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Quotes a CSV field if it needs it
+	 */
+	private static String csvField(String value) {
+		if (value.contains(",") || value.contains("\"")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int seedCount = 20;
+		int warmupSeedCount = 5;
+		int maxTurns = 1000;
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		String outFile = null;
+		List<String> mapPaths = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--seeds")) {
+				seedCount = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--warmup")) {
+				warmupSeedCount = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--turns")) {
+				maxTurns = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--threads")) {
+				threadCount = Integer.parseInt(args[++i]);
+			}else if (args[i].equals("--out")) {
+				outFile = args[++i];
+			}else {
+				mapPaths.add(args[i]);
+			}
+		}
+		if (mapPaths.isEmpty()) {
+			mapPaths.add(".");
+		}
+
+		Tournament tournament = new Tournament(seedCount, maxTurns);
+		tournament.setWarmupSeedCount(warmupSeedCount);
+		tournament.addHumanEntrant("scripted", (terrain, seed) -> new ScriptedHumanPlayer(seed, terrain.getGoldRequired()));
+		tournament.addBotEntrant("bot", (terrain, seed) -> new BotPlayer(seed));
+
+		/* Directories are searched for map files, anything that is not a usable map is skipped */
+		for (String mapPath : mapPaths) {
+			File file = new File(mapPath);
+			File[] candidates = file.isDirectory() ? file.listFiles((dir, name) -> name.endsWith(".txt")) : new File[]{file};
+			if (candidates == null) {
+				continue;
+			}
+			Arrays.sort(candidates);
+			for (File candidate : candidates) {
+				try {
+					tournament.addMap(TerrainCache.load(candidate.getPath()));
+				} catch (IOException e) {
+					System.err.println("Skipping " + candidate.getPath() + ": " + e.getMessage());
+				}
+			}
+		}
+
+		List<MatchResult> results = tournament.run(threadCount);
+		for (String failedMatch : tournament.getFailedMatches()) {
+			System.err.println("Match failed, " + failedMatch);
+		}
+		PrintWriter out = outFile == null ? new PrintWriter(new OutputStreamWriter(System.out)) : new PrintWriter(new FileWriter(outFile));
+		writeCsv(results, out);
+		if (outFile != null) {
+			out.close();
+		}
+	}
+}
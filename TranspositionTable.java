@@ -0,0 +1,104 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size table from game state hashes (see ZobristHash) to a value, such as a search score
+ * or the number of times a state has been seen. Any number of threads can use the table without locks.
+ * Each entry is stored as two longs, the value and the value XORed with the hash. If another thread
+ * is halfway through writing an entry, the two longs no longer match the hash and the entry is
+ * treated as missing rather than giving back a value from the wrong state.
+ * When two hashes land on the same entry, the newest one replaces the older one.
+ * An empty entry looks like a value of 0 stored for the hash 0, which a real state is
+ * (almost) never going to hash to.
+ */
+public class TranspositionTable {
+
+	/* Returned by probe() when there is no value stored for a hash */
+	public static final long NOT_FOUND = Long.MIN_VALUE;
+	/* The most entries a table can have, as each entry takes two places in an array indexed by int */
+	public static final int MAX_CAPACITY = 1 << 29;
+
+	/* entries[2i] holds hash ^ value and entries[2i+1] holds the value */
+	private final AtomicLongArray entries;
+	/* Used to turn a hash into an entry index, the number of entries is a power of two */
+	private final int indexMask;
+
+
+	/**
+	 * Constructor for TranspositionTable
+	 * @param capacity : the number of entries, rounded up to a power of two
+	 * @throws IllegalArgumentException if the capacity is less than 1 or more than MAX_CAPACITY
+	 */
+	public TranspositionTable(int capacity) {
+		if (capacity < 1 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ", not " + capacity);
+		}
+		int size = 1;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		entries = new AtomicLongArray(size * 2);
+		indexMask = size - 1;
+	}
+
+	/**
+	 * @return : the number of entries in the table
+	 */
+	public int getCapacity() {
+		return indexMask + 1;
+	}
+
+	/**
+	 * Stores a value for a hash, replacing whatever was in its entry
+	 * @param hash : the hash of the game state
+	 * @param value : the value to store
+	 */
+	public void store(long hash, long value) {
+		int index = index(hash);
+		entries.set(index + 1, value);
+		entries.set(index, hash ^ value);
+	}
+
+	/**
+	 * @param hash : the hash of the game state
+	 * @return : the value stored for the hash, or NOT_FOUND if there is none
+	 */
+	public long probe(long hash) {
+		int index = index(hash);
+		long check = entries.get(index);
+		long value = entries.get(index + 1);
+		if ((check ^ value) != hash) {
+			return NOT_FOUND;
+		}
+		return value;
+	}
+
+	/**
+	 * Counts a visit to a game state, for spotting positions that keep repeating.
+	 * If two threads record the same state at once, one of the visits may not be counted.
+	 * @param hash : the hash of the game state
+	 * @return : the number of times the state has been visited, including this visit
+	 */
+	public long recordVisit(long hash) {
+		long visits = probe(hash);
+		if (visits == NOT_FOUND) {
+			visits = 0;
+		}
+		visits++;
+		store(hash, visits);
+		return visits;
+	}
+
+	/**
+	 * Empties every entry in the table
+	 */
+	public void clear() {
+		for (int i = 0; i < entries.length(); i++) {
+			entries.set(i, 0);
+		}
+	}
+
+	private int index(long hash) {
+		/* Fold the top half in, so every bit of the hash helps decide the entry */
+		return (int) ((hash ^ (hash >>> 32)) & indexMask) << 1;
+	}
+}
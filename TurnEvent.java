@@ -0,0 +1,29 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event for a command performed by a player (see GameLogic.performAction()).
+ * Only turns taking longer than the threshold are recorded, which a recording's settings can change.
+ */
+@Name("dungeon.Turn")
+@Label("Turn")
+@Category("Dungeon of Doom")
+@Description("A command performed by the human or a bot")
+@Threshold("1 ms")
+@StackTrace(false)
+public class TurnEvent extends jdk.jfr.Event {
+
+	@Label("Command")
+	String command;
+
+	@Label("Actor")
+	@Description("The player performing the command, Human or Bot followed by its number")
+	String actor;
+
+	@Label("Outcome")
+	String outcome;
+}
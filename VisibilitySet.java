@@ -0,0 +1,58 @@
+/**
+ * The tiles that can be seen from a position, within a square around it (see FieldOfView).
+ * Once FieldOfView has worked it out, it is never changed.
+ */
+public final class VisibilitySet {
+
+	/* How many tiles away from the centre the square reaches */
+	private final int radius;
+	/* The width of the square, 2 * radius + 1 */
+	private final int width;
+	/* One bit per tile in the square, stored row by row */
+	private final long[] bits;
+
+
+	/**
+	 * Constructor for VisibilitySet, with nothing visible
+	 * @param radius : how many tiles away from the centre the square reaches
+	 */
+	VisibilitySet(int radius) {
+		this.radius = radius;
+		width = 2 * radius + 1;
+		bits = new long[(width * width + 63) / 64];
+	}
+
+	/**
+	 * @return : how many tiles away from the centre the square reaches
+	 */
+	public int getRadius() {
+		return radius;
+	}
+
+	/**
+	 * @param rowOffset, columnOffset : the position of the tile relative to the centre
+	 * @return : true if the tile can be seen, false if it is hidden or outside of the square
+	 */
+	public boolean isVisible(int rowOffset, int columnOffset) {
+		if (Math.abs(rowOffset) > radius || Math.abs(columnOffset) > radius) {
+			return false;
+		}
+		int index = index(rowOffset, columnOffset);
+		return (bits[index >> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Marks a tile as visible, only used while FieldOfView works the set out
+	 */
+	void markVisible(int rowOffset, int columnOffset) {
+		if (Math.abs(rowOffset) > radius || Math.abs(columnOffset) > radius) {
+			return;
+		}
+		int index = index(rowOffset, columnOffset);
+		bits[index >> 6] |= 1L << index;
+	}
+
+	private int index(int rowOffset, int columnOffset) {
+		return (rowOffset + radius) * width + columnOffset + radius;
+	}
+}
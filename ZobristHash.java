@@ -0,0 +1,93 @@
+/**
+ * Zobrist keys used to hash the state of a game.
+ * The hash of a state is the XOR of the key of every tile on the map, the key of every player
+ * (their position and the item they are standing on), the key of the gold owned by the human
+ * and, on the human's turn, the turn key. Changing one part of the state only needs the old key
+ * and the new key to be XORed in, so the hash can be kept up to date as the game is played.
+ * Keys are worked out from a mixing function rather than stored in tables, so large maps do
+ * not need a table of keys for every tile.
+ */
+public final class ZobristHash {
+
+	/* Different salts stop a tile key lining up with a player or gold key */
+	private static final long TILE_SALT = 0x9E3779B97F4A7C15L;
+	private static final long HUMAN_SALT = 0xC2B2AE3D27D4EB4FL;
+	private static final long BOT_SALT = 0x165667B19E3779F9L;
+	private static final long GOLD_SALT = 0xD6E8FEB86659FD93L;
+	private static final long TURN_KEY = mix(0x27D4EB2F165667C5L);
+
+
+	private ZobristHash() {
+	}
+
+	/**
+	 * @param rowPos, columnPos : The row/column number of the tile
+	 * @param tile : The tile at that position
+	 * @return : the key for the tile at that position
+	 */
+	public static long tile(int rowPos, int columnPos, char tile) {
+		return mix(position(rowPos, columnPos) ^ mix(TILE_SALT + tile));
+	}
+
+	/**
+	 * @param isHuman : true for the human player, false for a bot
+	 * @param rowPos, columnPos : The row/column number the player is on
+	 * @param itemPlayerIsOn : The item the player is standing on
+	 * @return : the key for a player standing at that position
+	 */
+	public static long player(boolean isHuman, int rowPos, int columnPos, char itemPlayerIsOn) {
+		long salt = isHuman ? HUMAN_SALT : BOT_SALT;
+		return mix(position(rowPos, columnPos) ^ mix(salt + itemPlayerIsOn));
+	}
+
+	/**
+	 * @param player : The player to work out the key for
+	 * @return : the key for the player's current position and item
+	 */
+	public static long player(PlayerRecord player) {
+		return player(player.isHuman(), player.getRowPosition(), player.getColumnPosition(), player.getItemPlayerIsOn());
+	}
+
+	/**
+	 * @param goldOwned : The gold owned by the human player
+	 * @return : the key for that amount of gold
+	 */
+	public static long gold(int goldOwned) {
+		return mix(GOLD_SALT + goldOwned);
+	}
+
+	/**
+	 * @return : the key XORed in when it is the human's turn
+	 */
+	public static long humanTurn() {
+		return TURN_KEY;
+	}
+
+	/**
+	 * Hashes every tile of a grid. Only needed once, after which the hash is updated tile by tile.
+	 * @param tiles : The tiles to hash
+	 * @return : the XOR of the key of every tile
+	 */
+	public static long of(TileGrid tiles) {
+		long hash = 0;
+		for (int i = 0; i < tiles.getRowCount(); i++) {
+			for (int j = 0; j < tiles.getColumnCount(); j++) {
+				hash ^= tile(i, j, tiles.get(i, j));
+			}
+		}
+		return hash;
+	}
+
+	private static long position(int rowPos, int columnPos) {
+		return ((long) rowPos << 32) | (columnPos & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * The finaliser of SplitMix64, which spreads every input bit over the whole output
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+}